@@ -0,0 +1,33 @@
+package org.example.weather.bench;
+
+import io.avaje.inject.BeanScope;
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * Avaje, loading the module generated in {@code core-avaje}, with the stub supplied in place of the transport.
+ */
+public class AvajeBenchmark extends ContainerBenchmark<BeanScope> {
+	@Override
+	protected BeanScope build() {
+		return BeanScope.builder()
+				.bean(IHttpTransport.class, new StubHttpTransport())
+				.build();
+	}
+
+	@Override
+	protected WeatherApplication application(BeanScope scope) {
+		return scope.get(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(BeanScope scope) {
+		return scope.get(IWeatherProvider.class);
+	}
+
+	@Override
+	protected void close(BeanScope scope) {
+		scope.close();
+	}
+}
@@ -0,0 +1,95 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.commands.AbstractCommand;
+import org.example.weather.commands.ICommand;
+import org.example.weather.impl.CommandManager;
+import org.example.weather.interfaces.ICommandManager;
+import org.example.weather.util.CommandTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.inject.Provider;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning an input line into a command and its arguments, one line per operation.
+ * <p>
+ * The {@code legacy*} benchmarks replicate the dispatch of the application before the tokenizer:
+ * a regex split, an array copy for the arguments, a lower case copy of the name, and a set copy per listing.
+ * Run with {@code -prof gc} to report the bytes allocated per line as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandDispatchBenchmark {
+	private static final String[] EMPTY_ARGS = new String[0];
+	private static final String[] LINES = {
+			"where",
+			"current",
+			"CURRENT",
+			"help",
+			"remote 38.8977 -77.0365",
+			"Remote  51.5072\t-0.1276",
+			"unknown"
+	};
+	private final Map<String, ICommand> legacyCommands = new HashMap<>();
+	private final CommandTokenizer tokenizer = new CommandTokenizer();
+	private ICommandManager commandManager;
+	private int next;
+
+	@Setup
+	public void setup() {
+		Map<String, Provider<ICommand>> commands = new HashMap<>();
+		for (String name : new String[]{"where", "current", "remote"}) {
+			ICommand command = new AbstractCommand(name) {
+				@Override
+				public void handleCommand(WeatherApplication context, String[] args) {
+					// Dispatch only
+				}
+			};
+			commands.put(name, () -> command);
+		}
+		commandManager = new CommandManager(() -> commands);
+		for (ICommand command : commandManager.commands())
+			legacyCommands.put(command.name(), command);
+	}
+
+	@Benchmark
+	public void legacyDispatch(Blackhole blackhole) {
+		String[] split = nextLine().split("\\s+");
+		String commandName = split[0];
+		String[] commandArgs = split.length == 1 ?
+				EMPTY_ARGS :
+				Arrays.copyOfRange(split, 1, split.length);
+		blackhole.consume(legacyCommands.get(commandName.toLowerCase()));
+		blackhole.consume(commandArgs);
+	}
+
+	@Benchmark
+	public void tokenizedDispatch(Blackhole blackhole) {
+		tokenizer.tokenize(nextLine());
+		blackhole.consume(commandManager.get(tokenizer.name()));
+		blackhole.consume(tokenizer.args());
+	}
+
+	@Benchmark
+	public Set<ICommand> legacyCommands() {
+		return new HashSet<>(legacyCommands.values());
+	}
+
+	@Benchmark
+	public Set<ICommand> commandSnapshot() {
+		return commandManager.commands();
+	}
+
+	private String nextLine() {
+		String line = LINES[next];
+		next = (next + 1) % LINES.length;
+		return line;
+	}
+}
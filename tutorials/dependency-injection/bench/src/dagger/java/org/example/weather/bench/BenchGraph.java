@@ -0,0 +1,13 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * Graph resolved by the Dagger benchmark, generated once per scope of the weather provider.
+ */
+public interface BenchGraph {
+	WeatherApplication application();
+
+	IWeatherProvider weatherProvider();
+}
@@ -0,0 +1,45 @@
+package org.example.weather.bench;
+
+import dagger.Module;
+import dagger.Provides;
+import org.example.weather.impl.*;
+import org.example.weather.interfaces.*;
+
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Same bindings as the module of {@code impl-dagger}, with the stub transport,
+ * and without the weather provider which each graph binds in its own scope.
+ */
+@Module
+public class BenchModule {
+	@Provides
+	@Singleton
+	public IHttpTransport httpTransport() {
+		return new StubHttpTransport();
+	}
+
+	@Provides
+	@Singleton
+	public INetworkAccessor networkAccessor(IHttpTransport transport) {
+		return new NetworkAccessor(transport);
+	}
+
+	@Provides
+	@Singleton
+	public ILocationProvider locationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		return new LocationProvider(accessor, transport);
+	}
+
+	@Provides
+	public ICommandLoader commandLoader(Provider<ILocationProvider> locationProvider,
+										Provider<IWeatherProvider> weatherProvider) {
+		return new CommandLoader(locationProvider, weatherProvider);
+	}
+
+	@Provides
+	public ICommandManager commandManager(ICommandLoader commandLoader) {
+		return new CommandManager(commandLoader);
+	}
+}
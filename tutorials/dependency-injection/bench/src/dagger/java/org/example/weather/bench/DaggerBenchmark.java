@@ -0,0 +1,31 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * Dagger, using components generated from {@link BenchModule}
+ * since the component of {@code impl-dagger} cannot have its transport replaced.
+ */
+public class DaggerBenchmark extends ScopedContainerBenchmark<BenchGraph> {
+	@Override
+	protected BenchGraph build() {
+		// Requires a project build to generate the 'DaggerSingletonGraph' and 'DaggerPrototypeGraph' types
+		return DaggerSingletonGraph.create();
+	}
+
+	@Override
+	protected BenchGraph buildPrototype() {
+		return DaggerPrototypeGraph.create();
+	}
+
+	@Override
+	protected WeatherApplication application(BenchGraph graph) {
+		return graph.application();
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(BenchGraph graph) {
+		return graph.weatherProvider();
+	}
+}
@@ -0,0 +1,23 @@
+package org.example.weather.bench;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+import javax.inject.Singleton;
+
+@Singleton
+@Component(modules = {BenchModule.class, PrototypeGraph.WeatherProviderModule.class})
+public interface PrototypeGraph extends BenchGraph {
+	@Module
+	class WeatherProviderModule {
+		@Provides
+		public IWeatherProvider weatherProvider(IHttpTransport transport) {
+			// Unscoped, so every resolution creates a new instance
+			return new WeatherProvider(transport);
+		}
+	}
+}
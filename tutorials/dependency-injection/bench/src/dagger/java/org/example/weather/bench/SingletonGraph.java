@@ -0,0 +1,23 @@
+package org.example.weather.bench;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+import javax.inject.Singleton;
+
+@Singleton
+@Component(modules = {BenchModule.class, SingletonGraph.WeatherProviderModule.class})
+public interface SingletonGraph extends BenchGraph {
+	@Module
+	class WeatherProviderModule {
+		@Provides
+		@Singleton
+		public IWeatherProvider weatherProvider(IHttpTransport transport) {
+			return new WeatherProvider(transport);
+		}
+	}
+}
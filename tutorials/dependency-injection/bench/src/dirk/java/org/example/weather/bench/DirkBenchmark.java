@@ -0,0 +1,67 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.WeatherBatch;
+import org.example.weather.WeatherBinaryServer;
+import org.example.weather.WeatherDaemon;
+import org.example.weather.WeatherServer;
+import org.example.weather.impl.*;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.int4.dirk.api.Injector;
+import org.int4.dirk.jsr330.Injectors;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+
+/**
+ * Dirk, registering the same types as {@code impl-dirk}, with the stub registered in place of the transport.
+ */
+public class DirkBenchmark extends ScopedContainerBenchmark<Injector> {
+	@Override
+	protected Injector build() {
+		return create(WeatherProvider.class);
+	}
+
+	@Override
+	protected Injector buildPrototype() {
+		return create(PrototypeWeatherProvider.class);
+	}
+
+	@Override
+	protected WeatherApplication application(Injector injector) {
+		return injector.getInstance(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(Injector injector) {
+		return injector.getInstance(IWeatherProvider.class);
+	}
+
+	private static Injector create(Class<? extends IWeatherProvider> weatherProviderType) {
+		Injector injector = Injectors.autoDiscovering();
+		injector.registerInstance(new StubHttpTransport());
+		injector.register(Arrays.asList(
+				CommandLoader.class,
+				CommandManager.class,
+				LocationProvider.class,
+				NetworkAccessor.class,
+				weatherProviderType,
+				WeatherApplication.class,
+				WeatherServer.class,
+				WeatherBinaryServer.class,
+				WeatherBatch.class,
+				WeatherDaemon.class));
+		return injector;
+	}
+
+	/**
+	 * Weather provider without a scope. The {@code @Singleton} of the superclass is not inherited.
+	 */
+	public static class PrototypeWeatherProvider extends WeatherProvider {
+		@Inject
+		public PrototypeWeatherProvider(IHttpTransport transport) {
+			super(transport);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package org.example.weather.bench;
+
+import org.codejargon.feather.Feather;
+import org.codejargon.feather.Provides;
+import org.example.weather.WeatherApplication;
+import org.example.weather.WeatherModule;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+import javax.inject.Singleton;
+
+/**
+ * Feather, using {@link WeatherModule} with its transport provider overridden by the stub.
+ */
+public class FeatherBenchmark extends ScopedContainerBenchmark<Feather> {
+	@Override
+	protected Feather build() {
+		return Feather.with(new StubModule());
+	}
+
+	@Override
+	protected Feather buildPrototype() {
+		return Feather.with(new PrototypeModule());
+	}
+
+	@Override
+	protected WeatherApplication application(Feather injector) {
+		return injector.instance(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(Feather injector) {
+		return injector.instance(IWeatherProvider.class);
+	}
+
+	/**
+	 * Module with the stub transport. Feather uses the provider methods of a subclass over the ones they override.
+	 */
+	public static class StubModule extends WeatherModule {
+		@Provides
+		@Singleton
+		@Override
+		public IHttpTransport httpTransport() {
+			return new StubHttpTransport();
+		}
+	}
+
+	/**
+	 * Module with the stub transport, and an unscoped weather provider.
+	 */
+	public static class PrototypeModule extends StubModule {
+		@Provides
+		@Override
+		public IWeatherProvider weatherProvider(IHttpTransport transport) {
+			return new WeatherProvider(transport);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package org.example.weather.bench;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import com.google.inject.util.Modules;
+import org.example.weather.WeatherApplication;
+import org.example.weather.WeatherModule;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Guice, using {@link WeatherModule} with its transport binding overridden by the stub.
+ */
+public class GuiceBenchmark extends ScopedContainerBenchmark<Injector> {
+	@Override
+	protected Injector build() {
+		Module stub = binder -> binder.bind(IHttpTransport.class).toInstance(new StubHttpTransport());
+		return Guice.createInjector(Modules.override(new WeatherModule()).with(stub));
+	}
+
+	@Override
+	protected Injector buildPrototype() {
+		Module stub = binder -> {
+			binder.bind(IHttpTransport.class).toInstance(new StubHttpTransport());
+			// Bound to the constructor rather than linked to the class, so the class' @Singleton does not apply
+			binder.bind(IWeatherProvider.class).toConstructor(weatherProviderConstructor()).in(Scopes.NO_SCOPE);
+		};
+		return Guice.createInjector(Modules.override(new WeatherModule()).with(stub));
+	}
+
+	@Override
+	protected WeatherApplication application(Injector injector) {
+		return injector.getInstance(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(Injector injector) {
+		return injector.getInstance(IWeatherProvider.class);
+	}
+
+	private static Constructor<WeatherProvider> weatherProviderConstructor() {
+		try {
+			return WeatherProvider.class.getConstructor(IHttpTransport.class);
+		} catch (NoSuchMethodException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
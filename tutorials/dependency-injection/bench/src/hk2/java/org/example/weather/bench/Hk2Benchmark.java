@@ -0,0 +1,74 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.impl.DatabaseLocationProvider;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.glassfish.hk2.api.PerLookup;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.AbstractActiveDescriptor;
+import org.glassfish.hk2.utilities.BuilderHelper;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+
+import javax.inject.Inject;
+
+/**
+ * HK2, populated from the generated locator entry as in {@code impl-hk2},
+ * with the stub ranked above the real transport.
+ */
+public class Hk2Benchmark extends ScopedContainerBenchmark<ServiceLocator> {
+	@Override
+	protected ServiceLocator build() {
+		return create(false);
+	}
+
+	@Override
+	protected ServiceLocator buildPrototype() {
+		return create(true);
+	}
+
+	@Override
+	protected WeatherApplication application(ServiceLocator locator) {
+		return locator.getService(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(ServiceLocator locator) {
+		return locator.getService(IWeatherProvider.class);
+	}
+
+	@Override
+	protected void close(ServiceLocator locator) {
+		locator.shutdown();
+	}
+
+	private static ServiceLocator create(boolean prototype) {
+		ServiceLocator locator = ServiceLocatorUtilities.createAndPopulateServiceLocator();
+		// As in 'impl-hk2', only one location provider may remain, the lookup API which reaches the stub transport
+		ServiceLocatorUtilities.removeFilter(locator,
+				descriptor -> DatabaseLocationProvider.class.getName().equals(descriptor.getImplementation()));
+		// Lookups pick the highest ranked service, so the generated descriptors remain but are never used
+		AbstractActiveDescriptor<StubHttpTransport> transport =
+				BuilderHelper.createConstantDescriptor(new StubHttpTransport(), null, IHttpTransport.class);
+		transport.setRanking(1);
+		ServiceLocatorUtilities.addOneDescriptor(locator, transport);
+		if (prototype)
+			ServiceLocatorUtilities.addOneDescriptor(locator, BuilderHelper.link(PrototypeWeatherProvider.class)
+					.to(IWeatherProvider.class)
+					.in(PerLookup.class)
+					.ofRank(1)
+					.build());
+		return locator;
+	}
+
+	/**
+	 * Weather provider without a scope annotation, as HK2 rejects descriptors with a scope other than the class'.
+	 */
+	public static class PrototypeWeatherProvider extends WeatherProvider {
+		@Inject
+		public PrototypeWeatherProvider(IHttpTransport transport) {
+			super(transport);
+		}
+	}
+}
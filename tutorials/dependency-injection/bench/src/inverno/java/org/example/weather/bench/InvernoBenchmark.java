@@ -0,0 +1,35 @@
+package org.example.weather.bench;
+
+import org.example.weather.Weather;
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * Inverno, starting the module generated in {@code core-inverno}.
+ * <p>
+ * The module has no socket for the transport, so it creates the real one. That creates an HTTP client,
+ * but no request is ever made.
+ */
+public class InvernoBenchmark extends ContainerBenchmark<Weather> {
+	@Override
+	protected Weather build() {
+		Weather weather = new Weather.Builder().build();
+		weather.start();
+		return weather;
+	}
+
+	@Override
+	protected WeatherApplication application(Weather weather) {
+		return weather.weatherApplication();
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(Weather weather) {
+		return weather.weatherProvider();
+	}
+
+	@Override
+	protected void close(Weather weather) {
+		weather.stop();
+	}
+}
@@ -0,0 +1,53 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.WeatherModule;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * JayWire, using {@link WeatherModule} with its transport method overridden by the stub.
+ */
+public class JayWireBenchmark extends ScopedContainerBenchmark<WeatherModule> {
+	@Override
+	protected WeatherModule build() {
+		return new StubModule();
+	}
+
+	@Override
+	protected WeatherModule buildPrototype() {
+		return new PrototypeModule();
+	}
+
+	@Override
+	protected WeatherApplication application(WeatherModule module) {
+		return module.application();
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(WeatherModule module) {
+		return module.weatherProvider();
+	}
+
+	/**
+	 * Module with the stub transport.
+	 */
+	public static class StubModule extends WeatherModule {
+		@Override
+		public IHttpTransport httpTransport() {
+			return singleton(StubHttpTransport::new);
+		}
+	}
+
+	/**
+	 * Module with the stub transport, and an unscoped weather provider.
+	 */
+	public static class PrototypeModule extends StubModule {
+		@Override
+		public IWeatherProvider weatherProvider() {
+			// Not wrapped in 'singleton(...)', so every call creates a new instance
+			return new WeatherProvider(httpTransport());
+		}
+	}
+}
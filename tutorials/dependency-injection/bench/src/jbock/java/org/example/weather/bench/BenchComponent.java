@@ -0,0 +1,61 @@
+package org.example.weather.bench;
+
+import io.jbock.simple.Component;
+import io.jbock.simple.Provides;
+import org.example.weather.WeatherApplication;
+import org.example.weather.impl.*;
+import org.example.weather.interfaces.*;
+
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Same graph as the component of {@code impl-jbock}, with the stub transport.
+ */
+@Singleton
+@Component
+public interface BenchComponent {
+	@Component.Factory
+	interface Factory {
+		BenchComponent create();
+	}
+
+	@Provides
+	@Singleton
+	static IHttpTransport provideHttpTransport() {
+		return new StubHttpTransport();
+	}
+
+	@Provides
+	@Singleton
+	static IWeatherProvider provideWeatherProvider(IHttpTransport transport) {
+		return new WeatherProvider(transport);
+	}
+
+	@Provides
+	@Singleton
+	static INetworkAccessor provideNetworkAccessor(IHttpTransport transport) {
+		return new NetworkAccessor(transport);
+	}
+
+	@Provides
+	@Singleton
+	static ILocationProvider provideLocationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		return new LocationProvider(accessor, transport);
+	}
+
+	@Provides
+	static ICommandLoader provideCommandLoader(Provider<ILocationProvider> locationProvider,
+											   Provider<IWeatherProvider> weatherProvider) {
+		return new CommandLoader(locationProvider, weatherProvider);
+	}
+
+	@Provides
+	static ICommandManager provideCommandManager(ICommandLoader commandLoader) {
+		return new CommandManager(commandLoader);
+	}
+
+	WeatherApplication application();
+
+	IWeatherProvider weatherProvider();
+}
@@ -0,0 +1,24 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IWeatherProvider;
+
+/**
+ * jbock, using {@link BenchComponent} since the component of {@code impl-jbock} cannot have its transport replaced.
+ */
+public class JbockBenchmark extends ContainerBenchmark<BenchComponent> {
+	@Override
+	protected BenchComponent build() {
+		return BenchComponent_Impl.factory().create();
+	}
+
+	@Override
+	protected WeatherApplication application(BenchComponent component) {
+		return component.application();
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(BenchComponent component) {
+		return component.weatherProvider();
+	}
+}
@@ -0,0 +1,88 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a DI container building the application graph, and resolving from it.
+ * Each container is configured the same way as in its {@code impl-*} module,
+ * with {@link StubHttpTransport} bound in place of the real transport where the container allows it.
+ * <p>
+ * Resolutions follow the scopes each container applies to the graph, so a container creating a new
+ * {@link WeatherApplication} per resolution is measured doing just that.
+ *
+ * @param <C>
+ * 		Container type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class ContainerBenchmark<C> {
+	private C container;
+
+	@Setup
+	public void setup() {
+		container = build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		close(container);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void buildContainer(Blackhole blackhole) {
+		// Closing is measured too, otherwise containers holding threads would pile up across invocations
+		C built = build();
+		blackhole.consume(built);
+		close(built);
+	}
+
+	@Benchmark
+	public WeatherApplication getApplication() {
+		return application(container);
+	}
+
+	@Benchmark
+	public IWeatherProvider singletonWeatherProvider() {
+		return weatherProvider(container);
+	}
+
+	/**
+	 * @return New container, with the weather provider bound as a singleton.
+	 */
+	protected abstract C build();
+
+	/**
+	 * @param container
+	 * 		Container to resolve from.
+	 *
+	 * @return Application instance.
+	 */
+	protected abstract WeatherApplication application(C container);
+
+	/**
+	 * @param container
+	 * 		Container to resolve from.
+	 *
+	 * @return Weather provider instance.
+	 */
+	protected abstract IWeatherProvider weatherProvider(C container);
+
+	/**
+	 * @param container
+	 * 		Container to release.
+	 */
+	protected void close(C container) {
+		// Nothing to release by default
+	}
+}
@@ -0,0 +1,41 @@
+package org.example.weather.bench;
+
+import org.example.weather.interfaces.IWeatherProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Container benchmark that also resolves the weather provider from a second container, where it is bound unscoped.
+ * Comparing {@link #prototypeWeatherProvider()} with {@link #singletonWeatherProvider()} gives the cost of creating
+ * and injecting an instance per resolution, over handing out the same one.
+ * <p>
+ * Only for containers that can change the scope of a binding when they are built.
+ * The scopes of the generated graphs, such as Avaje's, are fixed at compile time.
+ *
+ * @param <C>
+ * 		Container type.
+ */
+public abstract class ScopedContainerBenchmark<C> extends ContainerBenchmark<C> {
+	private C prototypeContainer;
+
+	@Setup
+	public void setupPrototype() {
+		prototypeContainer = buildPrototype();
+	}
+
+	@TearDown
+	public void tearDownPrototype() {
+		close(prototypeContainer);
+	}
+
+	@Benchmark
+	public IWeatherProvider prototypeWeatherProvider() {
+		return weatherProvider(prototypeContainer);
+	}
+
+	/**
+	 * @return New container, with the weather provider bound unscoped.
+	 */
+	protected abstract C buildPrototype();
+}
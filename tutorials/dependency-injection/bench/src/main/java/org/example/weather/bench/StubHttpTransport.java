@@ -0,0 +1,38 @@
+package org.example.weather.bench;
+
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.util.ByteScanner;
+import org.example.weather.util.Validators;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Transport failing every request without touching the network.
+ * Bound in place of the real transport, so that building a container does not create an HTTP client,
+ * and the benchmarks only measure the container itself.
+ */
+public class StubHttpTransport implements IHttpTransport {
+	@Override
+	public CompletableFuture<String> readStringAsync(String url, IntFunction<String> badStatusMessageProvider) {
+		return CompletableFuture.failedFuture(stubbed(url));
+	}
+
+	@Override
+	public CompletableFuture<HttpResponse<byte[]>> readBytesAsync(String url, Validators validators,
+																   IntFunction<String> badStatusMessageProvider) {
+		return CompletableFuture.failedFuture(stubbed(url));
+	}
+
+	@Override
+	public <T> CompletableFuture<T> scanAsync(String url, ByteScanner<T> scanner,
+											  IntFunction<String> badStatusMessageProvider) {
+		return CompletableFuture.failedFuture(stubbed(url));
+	}
+
+	private static IOException stubbed(String url) {
+		return new IOException("Network is stubbed, cannot request: " + url);
+	}
+}
@@ -0,0 +1,51 @@
+package org.example.weather.bench;
+
+import org.example.weather.Main;
+import org.example.weather.WeatherApplication;
+import org.example.weather.impl.WeatherProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Spring, scanning through the configuration of {@code impl-spring}, with the stub registered in place of the transport.
+ */
+public class SpringBenchmark extends ScopedContainerBenchmark<AnnotationConfigApplicationContext> {
+	@Override
+	protected AnnotationConfigApplicationContext build() {
+		return create(false);
+	}
+
+	@Override
+	protected AnnotationConfigApplicationContext buildPrototype() {
+		return create(true);
+	}
+
+	@Override
+	protected WeatherApplication application(AnnotationConfigApplicationContext context) {
+		return context.getBean(WeatherApplication.class);
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(AnnotationConfigApplicationContext context) {
+		return context.getBean(IWeatherProvider.class);
+	}
+
+	@Override
+	protected void close(AnnotationConfigApplicationContext context) {
+		context.close();
+	}
+
+	private static AnnotationConfigApplicationContext create(boolean prototype) {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(Main.class);
+		// Beans registered explicitly take precedence over scanned beans of the same name
+		context.registerBean("httpTransport", IHttpTransport.class, StubHttpTransport::new);
+		if (prototype)
+			context.registerBean("weatherProvider", WeatherProvider.class,
+					definition -> definition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+		context.refresh();
+		return context;
+	}
+}
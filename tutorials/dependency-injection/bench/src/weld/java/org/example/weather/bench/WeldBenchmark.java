@@ -0,0 +1,79 @@
+package org.example.weather.bench;
+
+import org.example.weather.WeatherApplication;
+import org.example.weather.WeatherBatch;
+import org.example.weather.WeatherBinaryServer;
+import org.example.weather.WeatherDaemon;
+import org.example.weather.WeatherServer;
+import org.example.weather.impl.*;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Weld, with the bean classes listed rather than scanned as in {@code impl-weld}, so the stub replaces the transport.
+ */
+public class WeldBenchmark extends ScopedContainerBenchmark<WeldContainer> {
+	// Weld refuses to start a container with the id of one still running
+	private static final AtomicInteger CONTAINER_IDS = new AtomicInteger();
+
+	@Override
+	protected WeldContainer build() {
+		return create(false);
+	}
+
+	@Override
+	protected WeldContainer buildPrototype() {
+		return create(true);
+	}
+
+	@Override
+	protected WeatherApplication application(WeldContainer container) {
+		return container.select(WeatherApplication.class).get();
+	}
+
+	@Override
+	protected IWeatherProvider weatherProvider(WeldContainer container) {
+		return container.select(IWeatherProvider.class).get();
+	}
+
+	@Override
+	protected void close(WeldContainer container) {
+		container.close();
+	}
+
+	private static WeldContainer create(boolean prototype) {
+		Weld weld = new Weld("bench-" + CONTAINER_IDS.incrementAndGet())
+				.disableDiscovery()
+				.addBeanClasses(
+						CommandLoader.class,
+						CommandManager.class,
+						StubHttpTransport.class,
+						LocationProvider.class,
+						NetworkAccessor.class,
+						WeatherProvider.class,
+						WeatherApplication.class,
+						WeatherServer.class,
+						WeatherBinaryServer.class,
+						WeatherBatch.class,
+						WeatherDaemon.class);
+		if (prototype)
+			weld.addExtension(new PrototypeExtension());
+		return weld.initialize();
+	}
+
+	/**
+	 * Removes the {@code @Singleton} of the weather provider, leaving it in the default dependent scope.
+	 */
+	public static class PrototypeExtension implements Extension {
+		void unscope(@Observes ProcessAnnotatedType<WeatherProvider> event) {
+			event.configureAnnotatedType().remove(annotation -> annotation.annotationType() == Singleton.class);
+		}
+	}
+}
@@ -18,4 +18,11 @@ public interface ICommand {
 	 * 		Arguments.
 	 */
 	void handleCommand(WeatherApplication context, String[] args);
+
+	/**
+	 * Starts the lookups the command depends on in the background, without waiting on them,
+	 * so that a later call to {@link #handleCommand(WeatherApplication, String[])} finds them cached or in flight.
+	 */
+	default void warmUp() {
+	}
 }
@@ -0,0 +1,57 @@
+package org.example.weather.interfaces;
+
+import org.example.weather.util.ByteScanner;
+import org.example.weather.util.Validators;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Tool outline for HTTP requests over a shared connection pool.
+ */
+public interface IHttpTransport {
+	/**
+	 * @param url
+	 * 		URL to request.
+	 * @param badStatusMessageProvider
+	 * 		Message formatter for non-200 status codes.
+	 *
+	 * @return Future of the string content at url.
+	 * Completes exceptionally with an {@link IOException} when the connection could not be read.
+	 */
+	CompletableFuture<String> readStringAsync(String url, IntFunction<String> badStatusMessageProvider);
+
+	/**
+	 * @param url
+	 * 		URL to request.
+	 * @param validators
+	 * 		Validators of a previous response for the same URL, making the request conditional.
+	 * @param badStatusMessageProvider
+	 * 		Message formatter for status codes other than 200 and 304.
+	 *
+	 * @return Future of the response with the body fully read, without blocking a thread while it arrives.
+	 * When the status code is 304 the previous response is still current, and the body is empty.
+	 * Completes exceptionally with an {@link IOException} when the connection could not be read.
+	 */
+	CompletableFuture<HttpResponse<byte[]>> readBytesAsync(String url, Validators validators,
+															IntFunction<String> badStatusMessageProvider);
+
+	/**
+	 * @param url
+	 * 		URL to request.
+	 * @param scanner
+	 * 		Scanner to feed the body to as it arrives.
+	 * @param badStatusMessageProvider
+	 * 		Message formatter for non-200 status codes.
+	 * @param <T>
+	 * 		Type of value scanned for.
+	 *
+	 * @return Future of the value found by the scanner. The transfer is aborted as soon as the scanner has its value,
+	 * so the rest of the body is never downloaded.
+	 * Completes exceptionally with an {@link IOException} when the connection could not be read,
+	 * or the scanner failed.
+	 */
+	<T> CompletableFuture<T> scanAsync(String url, ByteScanner<T> scanner, IntFunction<String> badStatusMessageProvider);
+}
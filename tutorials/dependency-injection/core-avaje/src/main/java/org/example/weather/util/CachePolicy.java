@@ -0,0 +1,118 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Util for reading HTTP caching headers.
+ */
+public class CachePolicy {
+	// Delta seconds beyond this are taken as this, so that no calculation with them overflows
+	private static final long MAX_DELTA_SECONDS = 1L << 31;
+
+	/**
+	 * @param headers
+	 * 		Response headers.
+	 *
+	 * @return {@code false} when {@code Cache-Control} forbids storing the response at all.
+	 */
+	public static boolean isStorable(HttpHeaders headers) {
+		Optional<String> cacheControl = headers.firstValue("Cache-Control");
+		if (cacheControl.isPresent()) {
+			for (String directive : cacheControl.get().split(",")) {
+				if (directive.trim().equalsIgnoreCase("no-store"))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param headers
+	 * 		Response headers.
+	 * @param now
+	 * 		Current time in epoch millis.
+	 *
+	 * @return Epoch millis the response stops being fresh at, per {@code Cache-Control} or {@code Expires}.
+	 * The lifetime given by {@code Expires} is taken relative to the {@code Date} of the response, so that a clock skew
+	 * between the origin server and this machine does not affect it. Empty when the response declares neither.
+	 * A value at or before {@code now} means the response must be revalidated before it is reused,
+	 * as with {@code no-cache}. Whether it may be stored at all is given by {@link #isStorable}.
+	 */
+	public static OptionalLong expiresAt(HttpHeaders headers, long now) {
+		Optional<String> cacheControl = headers.firstValue("Cache-Control");
+		if (cacheControl.isPresent()) {
+			long maxAge = -1;
+			for (String directive : cacheControl.get().split(",")) {
+				String name = directive.trim().toLowerCase(Locale.ROOT);
+				if (name.equals("no-store") || name.equals("no-cache"))
+					return OptionalLong.of(now);
+				if (name.startsWith("max-age=")) {
+					maxAge = parseDeltaSeconds(unquote(name.substring("max-age=".length())));
+					// Malformed max-age means the response is stale
+					if (maxAge < 0)
+						return OptionalLong.of(now);
+				}
+			}
+			if (maxAge >= 0) {
+				// Time already spent in upstream caches counts against the max age.
+				// Malformed ages are ignored, rather than failing the response they came with.
+				long age = headers.firstValue("Age").map(value -> Math.max(0, parseDeltaSeconds(value.trim()))).orElse(0L);
+				return OptionalLong.of(now + Math.max(0, maxAge - age) * 1000);
+			}
+		}
+		Optional<String> expires = headers.firstValue("Expires");
+		if (expires.isPresent()) {
+			Long expiresAt = parseDate(expires.get());
+			// Invalid dates, such as '0', represent a time in the past
+			if (expiresAt == null)
+				return OptionalLong.of(now);
+			// Without a valid Date, the response is taken as created now
+			Long date = headers.firstValue("Date").map(CachePolicy::parseDate).orElse(null);
+			return OptionalLong.of(now + Math.max(0, expiresAt - (date == null ? now : date)));
+		}
+		return OptionalLong.empty();
+	}
+
+	/**
+	 * @param value
+	 * 		Non-negative number of seconds.
+	 *
+	 * @return Number of seconds, at most {@link #MAX_DELTA_SECONDS}, or {@code -1} if malformed.
+	 */
+	private static long parseDeltaSeconds(String value) {
+		if (value.isEmpty())
+			return -1;
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) < '0' || value.charAt(i) > '9')
+				return -1;
+		}
+		try {
+			return Math.min(MAX_DELTA_SECONDS, Long.parseLong(value));
+		} catch (NumberFormatException ex) {
+			// Only digits, so only too large to represent
+			return MAX_DELTA_SECONDS;
+		}
+	}
+
+	@Nullable
+	private static Long parseDate(String value) {
+		try {
+			return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			return null;
+		}
+	}
+
+	private static String unquote(String value) {
+		if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+			return value.substring(1, value.length() - 1);
+		return value;
+	}
+}
@@ -0,0 +1,194 @@
+package org.example.weather.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Util for composing {@link CompletableFuture} stages with checked exceptions.
+ */
+public class Futures {
+	/**
+	 * Blocks until the future completes, rethrowing its failure as the checked exception type of a blocking API.
+	 *
+	 * @param future
+	 * 		Future to wait on.
+	 * @param failureType
+	 * 		Checked exception type to rethrow as is.
+	 * @param wrapper
+	 * 		Wraps any other checked failure into the exception type.
+	 * @param <T>
+	 * 		Value type.
+	 * @param <E>
+	 * 		Checked exception type.
+	 *
+	 * @return Value of the future.
+	 *
+	 * @throws E
+	 * 		When the future completed exceptionally, or the wait was interrupted.
+	 */
+	public static <T, E extends Exception> T await(CompletableFuture<T> future, Class<E> failureType,
+												   Function<Exception, E> wrapper) throws E {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw wrapper.apply(new InterruptedIOException("Interrupted while waiting on lookup"));
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (failureType.isInstance(cause))
+				throw failureType.cast(cause);
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw wrapper.apply((Exception) cause);
+		}
+	}
+
+	/**
+	 * @param future
+	 * 		Future to map the failure of.
+	 * @param failureType
+	 * 		Checked exception type to pass through as is.
+	 * @param wrapper
+	 * 		Wraps any other checked failure into the exception type.
+	 * @param <T>
+	 * 		Value type.
+	 * @param <E>
+	 * 		Checked exception type.
+	 *
+	 * @return Future completing with the same value, or exceptionally with the exception type.
+	 * Unchecked failures are passed through as is.
+	 */
+	public static <T, E extends Exception> CompletableFuture<T> mapFailure(CompletableFuture<T> future,
+																		   Class<E> failureType,
+																		   Function<Exception, E> wrapper) {
+		return future.handle((value, failure) -> {
+			if (failure == null)
+				return value;
+			Throwable cause = unwrap(failure);
+			if (failureType.isInstance(cause) || !(cause instanceof Exception) || cause instanceof RuntimeException)
+				throw new CompletionException(cause);
+			throw new CompletionException(wrapper.apply((Exception) cause));
+		});
+	}
+
+	/**
+	 * @param stage
+	 * 		Stage that may throw an {@link IOException}.
+	 * @param <T>
+	 * 		Input type.
+	 * @param <R>
+	 * 		Output type.
+	 *
+	 * @return Function for {@link CompletableFuture#thenApply(Function)},
+	 * completing the resulting future exceptionally with the thrown exception.
+	 */
+	public static <T, R> Function<T, R> unchecked(Stage<T, R> stage) {
+		return input -> {
+			try {
+				return stage.apply(input);
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		};
+	}
+
+	/**
+	 * @param failure
+	 * 		Failure passed to a completion stage.
+	 *
+	 * @return Actual failure, without the {@link CompletionException} wrapping added by dependent stages.
+	 */
+	public static Throwable unwrap(Throwable failure) {
+		while (failure instanceof CompletionException && failure.getCause() != null)
+			failure = failure.getCause();
+		return failure;
+	}
+
+	/**
+	 * Starts tasks in order, with at most the given number of their futures incomplete at any time.
+	 * No thread is blocked waiting, each completion starts the next task.
+	 *
+	 * @param tasks
+	 * 		Tasks to start.
+	 * @param maxConcurrency
+	 * 		Maximum number of incomplete tasks.
+	 * @param <T>
+	 * 		Value type.
+	 *
+	 * @return Futures of the task results, in the order of the tasks.
+	 */
+	public static <T> List<CompletableFuture<T>> startBounded(List<? extends Supplier<CompletableFuture<T>>> tasks,
+															  int maxConcurrency) {
+		if (maxConcurrency <= 0)
+			throw new IllegalArgumentException("Max concurrency must be positive");
+		List<CompletableFuture<T>> results = new ArrayList<>(tasks.size());
+		for (int i = 0; i < tasks.size(); i++)
+			results.add(new CompletableFuture<>());
+		AtomicInteger next = new AtomicInteger();
+		for (int i = 0; i < Math.min(maxConcurrency, tasks.size()); i++)
+			startNext(tasks, results, next);
+		return results;
+	}
+
+	private static <T> void startNext(List<? extends Supplier<CompletableFuture<T>>> tasks,
+									  List<CompletableFuture<T>> results, AtomicInteger next) {
+		// Tasks that complete right away, such as cache hits, free their slot in this loop rather than by recursion
+		int index;
+		while ((index = next.getAndIncrement()) < tasks.size()) {
+			CompletableFuture<T> result = results.get(index);
+			CompletableFuture<T> stage;
+			try {
+				stage = tasks.get(index).get();
+			} catch (RuntimeException ex) {
+				stage = CompletableFuture.failedFuture(ex);
+			}
+			if (!stage.isDone()) {
+				stage.whenComplete((value, failure) -> {
+					complete(result, value, failure);
+					startNext(tasks, results, next);
+				});
+				return;
+			}
+			stage.whenComplete((value, failure) -> complete(result, value, failure));
+		}
+	}
+
+	private static <T> void complete(CompletableFuture<T> result, T value, Throwable failure) {
+		if (failure == null)
+			result.complete(value);
+		else
+			result.completeExceptionally(unwrap(failure));
+	}
+
+	/**
+	 * Completion stage that may throw an {@link IOException}.
+	 *
+	 * @param <T>
+	 * 		Input type.
+	 * @param <R>
+	 * 		Output type.
+	 */
+	@FunctionalInterface
+	public interface Stage<T, R> {
+		/**
+		 * @param input
+		 * 		Result of the previous stage.
+		 *
+		 * @return Result of this stage.
+		 *
+		 * @throws IOException
+		 * 		When the stage failed.
+		 */
+		R apply(T input) throws IOException;
+	}
+}
@@ -0,0 +1,443 @@
+package org.example.weather.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Minimal pull parser for JSON documents.
+ * <p>
+ * Unlike building a full DOM, values are read one token at a time directly from the underlying {@link Reader}.
+ * This allows callers to only materialize the values they are interested in, skip over the rest,
+ * and stop reading (and {@link #close() close} the source) as soon as they have what they need.
+ */
+public class JsonReader implements Closeable {
+	private static final int SCOPE_EMPTY_DOCUMENT = 0;
+	private static final int SCOPE_NONEMPTY_DOCUMENT = 1;
+	private static final int SCOPE_EMPTY_ARRAY = 2;
+	private static final int SCOPE_NONEMPTY_ARRAY = 3;
+	private static final int SCOPE_EMPTY_OBJECT = 4;
+	private static final int SCOPE_DANGLING_NAME = 5;
+	private static final int SCOPE_NONEMPTY_OBJECT = 6;
+	private final Reader in;
+	private final char[] buffer = new char[4096];
+	private final StringBuilder text = new StringBuilder();
+	private int[] scopes = new int[32];
+	private int depth = 1;
+	private int pos;
+	private int limit;
+	private Token peeked;
+
+	/**
+	 * @param in
+	 * 		Source to read JSON from.
+	 */
+	public JsonReader(Reader in) {
+		this.in = in;
+		scopes[0] = SCOPE_EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * @return Type of the next token, without consuming it.
+	 *
+	 * @throws IOException
+	 * 		When the source could not be read, or is not well-formed JSON.
+	 */
+	public Token peek() throws IOException {
+		if (peeked == null)
+			peeked = doPeek();
+		return peeked;
+	}
+
+	/**
+	 * @return {@code true} when the current array or object has another element.
+	 *
+	 * @throws IOException
+	 * 		When the source could not be read, or is not well-formed JSON.
+	 */
+	public boolean hasNext() throws IOException {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	/**
+	 * Consumes the beginning of an object.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#BEGIN_OBJECT}.
+	 */
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(SCOPE_EMPTY_OBJECT);
+	}
+
+	/**
+	 * Consumes the end of an object.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#END_OBJECT}.
+	 */
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		depth--;
+	}
+
+	/**
+	 * Consumes the beginning of an array.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#BEGIN_ARRAY}.
+	 */
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(SCOPE_EMPTY_ARRAY);
+	}
+
+	/**
+	 * Consumes the end of an array.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#END_ARRAY}.
+	 */
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		depth--;
+	}
+
+	/**
+	 * @return Name of the next object member.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#NAME}.
+	 */
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readQuoted();
+	}
+
+	/**
+	 * @return Next string value.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#STRING}.
+	 */
+	public String nextString() throws IOException {
+		expect(Token.STRING);
+		return readQuoted();
+	}
+
+	/**
+	 * @return Next numeric value.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#NUMBER}.
+	 */
+	public double nextDouble() throws IOException {
+		expect(Token.NUMBER);
+		String literal = readLiteral();
+		try {
+			return Double.parseDouble(literal);
+		} catch (NumberFormatException ex) {
+			throw syntaxError("Malformed number '" + literal + "'");
+		}
+	}
+
+	/**
+	 * @return Next boolean value.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#BOOLEAN}.
+	 */
+	public boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		String literal = readLiteral();
+		if (literal.equals("true"))
+			return true;
+		if (literal.equals("false"))
+			return false;
+		throw syntaxError("Malformed literal '" + literal + "'");
+	}
+
+	/**
+	 * Consumes a {@code null} literal.
+	 *
+	 * @throws IOException
+	 * 		When the next token is not {@link Token#NULL}.
+	 */
+	public void nextNull() throws IOException {
+		expect(Token.NULL);
+		String literal = readLiteral();
+		if (!literal.equals("null"))
+			throw syntaxError("Malformed literal '" + literal + "'");
+	}
+
+	/**
+	 * Skips the next value, including all nested values if it is an array or object.
+	 * Skipped strings are not materialized.
+	 *
+	 * @throws IOException
+	 * 		When the source could not be read, or is not well-formed JSON.
+	 * 		Also when the current array or object has no next value, which is left unconsumed.
+	 */
+	public void skipValue() throws IOException {
+		int skipDepth = 0;
+		do {
+			Token token = peek();
+			if (skipDepth == 0 && (token == Token.END_OBJECT || token == Token.END_ARRAY))
+				throw syntaxError("Expected a value but was " + token);
+			switch (token) {
+				case BEGIN_OBJECT:
+					beginObject();
+					skipDepth++;
+					break;
+				case BEGIN_ARRAY:
+					beginArray();
+					skipDepth++;
+					break;
+				case END_OBJECT:
+					endObject();
+					skipDepth--;
+					break;
+				case END_ARRAY:
+					endArray();
+					skipDepth--;
+					break;
+				case NAME:
+				case STRING:
+					peeked = null;
+					skipQuoted();
+					break;
+				case NUMBER:
+				case BOOLEAN:
+				case NULL:
+					peeked = null;
+					skipLiteral();
+					break;
+				case END_DOCUMENT:
+					throw syntaxError("Unexpected end of document");
+			}
+		} while (skipDepth > 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		peeked = null;
+		depth = 0;
+		in.close();
+	}
+
+	private Token doPeek() throws IOException {
+		int scope = scopes[depth - 1];
+		switch (scope) {
+			case SCOPE_EMPTY_ARRAY: {
+				scopes[depth - 1] = SCOPE_NONEMPTY_ARRAY;
+				int c = nextNonWhitespace();
+				if (c == ']')
+					return Token.END_ARRAY;
+				if (c == -1)
+					throw syntaxError("Unterminated array");
+				pos--;
+				return peekValue();
+			}
+			case SCOPE_NONEMPTY_ARRAY: {
+				int c = nextNonWhitespace();
+				if (c == ']')
+					return Token.END_ARRAY;
+				if (c != ',')
+					throw syntaxError("Expected ',' or ']'");
+				return peekValue();
+			}
+			case SCOPE_EMPTY_OBJECT:
+			case SCOPE_NONEMPTY_OBJECT: {
+				int c = nextNonWhitespace();
+				if (c == '}')
+					return Token.END_OBJECT;
+				if (scope == SCOPE_NONEMPTY_OBJECT) {
+					if (c != ',')
+						throw syntaxError("Expected ',' or '}'");
+					c = nextNonWhitespace();
+				}
+				if (c != '"')
+					throw syntaxError("Expected member name");
+				scopes[depth - 1] = SCOPE_DANGLING_NAME;
+				return Token.NAME;
+			}
+			case SCOPE_DANGLING_NAME:
+				scopes[depth - 1] = SCOPE_NONEMPTY_OBJECT;
+				if (nextNonWhitespace() != ':')
+					throw syntaxError("Expected ':'");
+				return peekValue();
+			case SCOPE_EMPTY_DOCUMENT:
+				scopes[depth - 1] = SCOPE_NONEMPTY_DOCUMENT;
+				return peekValue();
+			case SCOPE_NONEMPTY_DOCUMENT:
+				if (nextNonWhitespace() == -1)
+					return Token.END_DOCUMENT;
+				throw syntaxError("Expected end of document");
+			default:
+				throw new IllegalStateException("Reader is closed");
+		}
+	}
+
+	private Token peekValue() throws IOException {
+		int c = nextNonWhitespace();
+		switch (c) {
+			case '{':
+				return Token.BEGIN_OBJECT;
+			case '[':
+				return Token.BEGIN_ARRAY;
+			case '"':
+				return Token.STRING;
+			case 't':
+			case 'f':
+				pos--;
+				return Token.BOOLEAN;
+			case 'n':
+				pos--;
+				return Token.NULL;
+			case -1:
+				throw syntaxError("Unexpected end of document");
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					pos--;
+					return Token.NUMBER;
+				}
+				throw syntaxError("Unexpected character '" + (char) c + "'");
+		}
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token token = peek();
+		if (token != expected)
+			throw syntaxError("Expected " + expected + " but was " + token);
+		peeked = null;
+	}
+
+	private void push(int scope) {
+		if (depth == scopes.length)
+			scopes = Arrays.copyOf(scopes, depth * 2);
+		scopes[depth++] = scope;
+	}
+
+	private String readQuoted() throws IOException {
+		text.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == '"')
+				return text.toString();
+			if (c == '\\')
+				text.append(readEscape());
+			else if (c == -1)
+				throw syntaxError("Unterminated string");
+			else
+				text.append((char) c);
+		}
+	}
+
+	private void skipQuoted() throws IOException {
+		while (true) {
+			int c = read();
+			if (c == '"')
+				return;
+			if (c == '\\')
+				readEscape();
+			else if (c == -1)
+				throw syntaxError("Unterminated string");
+		}
+	}
+
+	private char readEscape() throws IOException {
+		int c = read();
+		switch (c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u': {
+				int value = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0)
+						throw syntaxError("Malformed unicode escape");
+					value = (value << 4) | digit;
+				}
+				return (char) value;
+			}
+			case '"':
+			case '\\':
+			case '/':
+				return (char) c;
+			default:
+				throw syntaxError("Invalid escape sequence");
+		}
+	}
+
+	private String readLiteral() throws IOException {
+		text.setLength(0);
+		int c;
+		while ((c = read()) != -1 && isLiteral(c))
+			text.append((char) c);
+		if (c != -1)
+			pos--;
+		return text.toString();
+	}
+
+	private void skipLiteral() throws IOException {
+		int c;
+		while ((c = read()) != -1 && isLiteral(c)) {
+			// Consume literal characters
+		}
+		if (c != -1)
+			pos--;
+	}
+
+	private static boolean isLiteral(int c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '-' || c == '+' || c == '.' || c == 'E';
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		return c;
+	}
+
+	private int read() throws IOException {
+		if (pos == limit) {
+			int read = in.read(buffer, 0, buffer.length);
+			if (read <= 0)
+				return -1;
+			pos = 0;
+			limit = read;
+		}
+		return buffer[pos++];
+	}
+
+	private IOException syntaxError(String message) {
+		return new IOException("Malformed JSON: " + message);
+	}
+
+	/**
+	 * JSON token types.
+	 */
+	public enum Token {
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		NAME,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL,
+		END_DOCUMENT
+	}
+}
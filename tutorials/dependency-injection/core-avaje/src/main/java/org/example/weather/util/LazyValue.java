@@ -0,0 +1,105 @@
+package org.example.weather.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Lazily loaded value, which is loaded again once it expires.
+ * <ul>
+ *     <li>Reads of a loaded value are lock-free, and do not wait on anything.</li>
+ *     <li>Concurrent reads missing a value share a single load. A failed load is not kept, so the next read retries.</li>
+ *     <li>Optionally, a read past the refresh time starts a load in the background, while still answering with the
+ *     current value. As long as the value is read often enough, it is then replaced before it ever expires.
+ *     A failed refresh is retried by the next read, and kept until a load succeeds. Once the value expires,
+ *     it is reported as suppressed by the failure of the load the read waits on, if that one fails as well.</li>
+ * </ul>
+ *
+ * @param <T>
+ * 		Value type.
+ */
+public class LazyValue<T> {
+	private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+	private final Supplier<CompletableFuture<T>> loader;
+	private final long ttlNanos;
+	private final long refreshAfterNanos;
+	private volatile Loaded<T> loaded;
+	private volatile Throwable refreshFailure;
+
+	/**
+	 * @param loader
+	 * 		Starts loading the value.
+	 * @param ttl
+	 * 		Time a loaded value remains valid for.
+	 * @param refreshAfter
+	 * 		Time after loading at which reads start a refresh in the background.
+	 * 		Zero, or a time not less than the time to live, disables background refresh.
+	 * @param unit
+	 * 		Unit of the times.
+	 */
+	public LazyValue(Supplier<CompletableFuture<T>> loader, long ttl, long refreshAfter, TimeUnit unit) {
+		if (ttl <= 0)
+			throw new IllegalArgumentException("Time to live must be positive");
+		this.loader = loader;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.refreshAfterNanos = refreshAfter > 0 && refreshAfter < ttl ? unit.toNanos(refreshAfter) : ttlNanos;
+	}
+
+	/**
+	 * @return Future of the value. Already complete when a valid value is loaded.
+	 */
+	public CompletableFuture<T> getAsync() {
+		Loaded<T> current = loaded;
+		long now = System.nanoTime();
+		if (current == null || now - current.loadedAt >= ttlNanos)
+			return load(false);
+		if (now - current.loadedAt >= refreshAfterNanos)
+			load(true); // Refresh in the background, readers keep the current value meanwhile
+		return CompletableFuture.completedFuture(current.value);
+	}
+
+	private CompletableFuture<T> load(boolean refresh) {
+		CompletableFuture<T> promise = new CompletableFuture<>();
+		CompletableFuture<T> existing = inFlight.compareAndExchange(null, promise);
+		if (existing != null)
+			return existing.copy();
+		CompletableFuture<T> work;
+		try {
+			work = loader.get();
+		} catch (RuntimeException ex) {
+			work = CompletableFuture.failedFuture(ex);
+		}
+		work.whenComplete((value, failure) -> {
+			Throwable cause = failure == null ? null : Futures.unwrap(failure);
+			if (failure == null) {
+				loaded = new Loaded<>(value, System.nanoTime());
+				refreshFailure = null;
+			} else if (refresh) {
+				// Nobody waits on a background refresh, so its failure is kept for the next load to report
+				refreshFailure = cause;
+			} else {
+				Throwable previousFailure = refreshFailure;
+				refreshFailure = null;
+				if (previousFailure != null && previousFailure != cause)
+					cause.addSuppressed(previousFailure);
+			}
+			inFlight.set(null);
+			if (failure == null)
+				promise.complete(value);
+			else
+				promise.completeExceptionally(cause);
+		});
+		return promise.copy();
+	}
+
+	private static final class Loaded<T> {
+		private final T value;
+		private final long loadedAt;
+
+		private Loaded(T value, long loadedAt) {
+			this.value = value;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package org.example.weather.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+
+/**
+ * Util for sockets only reachable from the local machine, addressed by a path.
+ * <p>
+ * Where the runtime supports them, these are Unix domain sockets bound to the path.
+ * They are looked up reflectively, as they are not part of the Java release this is compiled against.
+ * Otherwise, the socket is a TCP socket on the loopback address, with its port written to the file at the path.
+ * Any local user can connect to such a socket, so a random token is written next to the port, readable by the owner
+ * only. Servers are to check that clients present it, see {@link #token(Path)}.
+ */
+public class LocalSockets {
+	private static final int TOKEN_SIZE = 32;
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/**
+	 * @param path
+	 * 		Path to bind the socket to. An existing socket or port file at the path is replaced.
+	 *
+	 * @return Server socket channel.
+	 *
+	 * @throws IOException
+	 * 		When the socket could not be bound.
+	 */
+	public static ServerSocketChannel bind(Path path) throws IOException {
+		Files.deleteIfExists(path);
+		SocketAddress unixAddress = unixAddress(path);
+		if (unixAddress != null) {
+			ServerSocketChannel server = (ServerSocketChannel) open(ServerSocketChannel.class);
+			server.bind(unixAddress);
+			restrictToOwner(path);
+			return server;
+		}
+		ServerSocketChannel server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+		byte[] token = new byte[TOKEN_SIZE];
+		RANDOM.nextBytes(token);
+		try {
+			writeOwnerOnly(path, port + "\n" + new BigInteger(1, token).toString(16));
+		} catch (IOException ex) {
+			server.close();
+			throw ex;
+		}
+		return server;
+	}
+
+	/**
+	 * @param path
+	 * 		Path the socket is bound to.
+	 *
+	 * @return Token clients of the socket present to its server. Empty for a Unix domain socket,
+	 * which only its owner can connect to in the first place.
+	 *
+	 * @throws IOException
+	 * 		When the port file could not be read.
+	 */
+	public static byte[] token(Path path) throws IOException {
+		if (!Files.isRegularFile(path) && unixAddress(path) != null)
+			return new byte[0];
+		String[] lines = Files.readString(path).split("\n");
+		if (lines.length < 2)
+			throw new IOException("Not a socket port file: " + path);
+		return lines[1].trim().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @param path
+	 * 		Path the socket is bound to.
+	 *
+	 * @return Connected socket channel.
+	 *
+	 * @throws IOException
+	 * 		When there is nothing listening at the path.
+	 */
+	public static SocketChannel connect(Path path) throws IOException {
+		// A regular file holds the port of a loopback socket, anything else should be a Unix domain socket
+		if (!Files.isRegularFile(path)) {
+			SocketAddress unixAddress = unixAddress(path);
+			if (unixAddress != null) {
+				SocketChannel channel = (SocketChannel) open(SocketChannel.class);
+				try {
+					channel.connect(unixAddress);
+				} catch (IOException ex) {
+					channel.close();
+					throw ex;
+				}
+				return channel;
+			}
+		}
+		int port;
+		try {
+			port = Integer.parseInt(Files.readString(path).split("\n")[0].trim());
+		} catch (NumberFormatException ex) {
+			throw new IOException("Not a socket port file: " + path);
+		}
+		return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+	}
+
+	private static SocketAddress unixAddress(Path path) {
+		try {
+			return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+					.getMethod("of", Path.class)
+					.invoke(null, path);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			return null;
+		}
+	}
+
+	private static Object open(Class<?> channelType) throws IOException {
+		try {
+			ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+			return channelType.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			throw new IOException("Unix domain sockets are not supported", ex);
+		}
+	}
+
+	private static void writeOwnerOnly(Path path, String content) throws IOException {
+		// Created with its permissions, so that the content is never readable by others, not even briefly
+		try {
+			Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} catch (UnsupportedOperationException ex) {
+			// Not a POSIX file system, access is then left to the directory permissions
+			Files.createFile(path);
+		}
+		Files.writeString(path, content);
+	}
+
+	private static void restrictToOwner(Path path) {
+		try {
+			Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+		} catch (IOException | UnsupportedOperationException ex) {
+			// Not a POSIX file system, access is then left to the directory permissions
+		}
+	}
+}
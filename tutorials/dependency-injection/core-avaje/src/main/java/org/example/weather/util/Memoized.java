@@ -0,0 +1,44 @@
+package org.example.weather.util;
+
+import javax.inject.Provider;
+import java.util.function.Supplier;
+
+/**
+ * Provider creating its value on first use, then handing out that same value.
+ *
+ * @param <T>
+ * 		Value type.
+ */
+public class Memoized<T> implements Provider<T> {
+	private final Supplier<T> factory;
+	private volatile T value;
+
+	private Memoized(Supplier<T> factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * @param factory
+	 * 		Creates the value. Called at most once.
+	 * @param <T>
+	 * 		Value type.
+	 *
+	 * @return Provider of the value.
+	 */
+	public static <T> Memoized<T> of(Supplier<T> factory) {
+		return new Memoized<>(factory);
+	}
+
+	@Override
+	public T get() {
+		T current = value;
+		if (current == null) {
+			synchronized (this) {
+				current = value;
+				if (current == null)
+					value = current = factory.get();
+			}
+		}
+		return current;
+	}
+}
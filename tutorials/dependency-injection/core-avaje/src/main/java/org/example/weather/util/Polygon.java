@@ -0,0 +1,78 @@
+package org.example.weather.util;
+
+/**
+ * Simple polygon of latitude/longitude vertices.
+ */
+public class Polygon {
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final double minLatitude;
+	private final double maxLatitude;
+	private final double minLongitude;
+	private final double maxLongitude;
+
+	/**
+	 * @param latitudes
+	 * 		Vertex latitudes.
+	 * @param longitudes
+	 * 		Vertex longitudes, same length as the latitudes.
+	 */
+	public Polygon(double[] latitudes, double[] longitudes) {
+		if (latitudes.length != longitudes.length || latitudes.length < 3)
+			throw new IllegalArgumentException("Polygon requires at least 3 vertices");
+		this.latitudes = latitudes;
+		this.longitudes = longitudes;
+		double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+		double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+		for (int i = 0; i < latitudes.length; i++) {
+			minLat = Math.min(minLat, latitudes[i]);
+			maxLat = Math.max(maxLat, latitudes[i]);
+			minLon = Math.min(minLon, longitudes[i]);
+			maxLon = Math.max(maxLon, longitudes[i]);
+		}
+		minLatitude = minLat;
+		maxLatitude = maxLat;
+		minLongitude = minLon;
+		maxLongitude = maxLon;
+	}
+
+	/**
+	 * @param latitude
+	 * 		Point latitude.
+	 * @param longitude
+	 * 		Point longitude.
+	 *
+	 * @return {@code true} when the point is inside the polygon.
+	 */
+	public boolean contains(double latitude, double longitude) {
+		if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude)
+			return false;
+		// Ray casting, counting the edges crossed by a ray from the point towards increasing longitude
+		boolean inside = false;
+		for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+			if ((latitudes[i] > latitude) != (latitudes[j] > latitude)) {
+				double crossing = longitudes[i] + (latitude - latitudes[i]) *
+						(longitudes[j] - longitudes[i]) / (latitudes[j] - latitudes[i]);
+				if (longitude < crossing)
+					inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	public double getMinLatitude() {
+		return minLatitude;
+	}
+
+	public double getMaxLatitude() {
+		return maxLatitude;
+	}
+
+	public double getMinLongitude() {
+		return minLongitude;
+	}
+
+	public double getMaxLongitude() {
+		return maxLongitude;
+	}
+}
@@ -0,0 +1,58 @@
+package org.example.weather.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key, so that only one of them does the work.
+ * <p>
+ * The first caller for a key starts the loader, while callers arriving during that run share its result.
+ * Once the run completes the key is released, so later calls start a new run.
+ *
+ * @param <K>
+ * 		Key type.
+ * @param <V>
+ * 		Value type.
+ */
+public class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * @param key
+	 * 		Key identifying the work.
+	 * @param loader
+	 * 		Starts the work, if no other call for the key is in flight.
+	 *
+	 * @return Future of the result of the loader, either from this call or the one already in flight.
+	 * Each caller gets its own future, so cancelling it does not affect the other callers.
+	 */
+	public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+		CompletableFuture<V> promise = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+		if (existing != null)
+			return existing.copy();
+		CompletableFuture<V> work;
+		try {
+			work = loader.get();
+		} catch (RuntimeException ex) {
+			work = CompletableFuture.failedFuture(ex);
+		}
+		work.whenComplete((value, failure) -> {
+			if (failure == null)
+				promise.complete(value);
+			else
+				promise.completeExceptionally(Futures.unwrap(failure));
+			inFlight.remove(key, promise);
+		});
+		return promise.copy();
+	}
+
+	/**
+	 * @return Number of keys with work in flight.
+	 */
+	public int size() {
+		return inFlight.size();
+	}
+}
@@ -0,0 +1,329 @@
+package org.example.weather;
+
+import org.example.weather.data.Location;
+import org.example.weather.data.Weather;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.example.weather.util.Futures;
+import org.example.weather.util.TaskExecutors;
+import org.jvnet.hk2.annotations.Service;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TCP server answering weather lookups in a compact binary protocol, for programmatic clients.
+ * <p>
+ * Every message is prefixed by its length as a four byte integer. All numbers are big-endian.
+ * <ul>
+ *     <li>Request: {@code int id, double latitude, double longitude}.</li>
+ *     <li>Response: {@code int id, byte status}, followed by the body of the status.
+ *     <ul>
+ *         <li>{@link #STATUS_OK}: {@code float temperature, float windSpeed, int temperatureUnit, int windUnit,
+ *         int windDirection, int forecast, short definitionCount}, then each definition as
+ *         {@code int textId, unsigned short length, byte[length] utf8}.</li>
+ *         <li>{@link #STATUS_BAD_REQUEST} and {@link #STATUS_LOOKUP_FAILED}:
+ *         {@code unsigned short length, byte[length] utf8} with the reason.</li>
+ *     </ul>
+ *     </li>
+ * </ul>
+ * Texts are sent as ids, each defined in the first response of a connection that uses it, so a client only decodes
+ * any text once. A text id of {@code -1} stands for no text. Once the shared vocabulary is full, further texts are
+ * sent inline, with ids below {@code -1} that are unique within their response and only defined for it.
+ * Texts are cut at a character boundary to fit their length.
+ * <p>
+ * Requests may be pipelined. Lookups run concurrently, and responses are sent in the order they complete,
+ * matched to their request by id.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.binary.host} - Address to listen on.</li>
+ *     <li>{@code weather.binary.port} - Port to listen on.</li>
+ *     <li>{@code weather.binary.connections} - Maximum number of connections served at once,
+ *     on runtimes without virtual threads.</li>
+ *     <li>{@code weather.binary.maxPipelined} - Maximum number of requests of a connection awaiting a response.
+ *     Reading requests of the connection pauses while the limit is reached.</li>
+ * </ul>
+ */
+@Service
+public class WeatherBinaryServer implements Runnable {
+	/** Lookup succeeded. */
+	public static final byte STATUS_OK = 0;
+	/** Request could not be answered, such as coordinates out of range. */
+	public static final byte STATUS_BAD_REQUEST = 1;
+	/** Weather lookup failed. */
+	public static final byte STATUS_LOOKUP_FAILED = 2;
+	private static final String HOST = System.getProperty("weather.binary.host", "127.0.0.1");
+	private static final int PORT = Integer.getInteger("weather.binary.port", 8081);
+	private static final int CONNECTIONS = Integer.getInteger("weather.binary.connections", 64);
+	private static final int MAX_PIPELINED = Integer.getInteger("weather.binary.maxPipelined", 256);
+	private static final int REQUEST_SIZE = 20;
+	private static final int MAX_TEXTS = 65536;
+	private static final int MAX_TEXT_SIZE = 0xFFFF;
+	private static final int NO_TEXT_ID = -1;
+	// Inline texts are numbered downwards from here, by their position in the response
+	private static final int FIRST_INLINE_TEXT_ID = -2;
+	private static final int MAX_REASON_SIZE = 1024;
+	private final Map<String, Integer> textIds = new ConcurrentHashMap<>();
+	private final AtomicInteger nextTextId = new AtomicInteger();
+	private final IWeatherProvider weatherProvider;
+
+	@Inject
+	public WeatherBinaryServer(IWeatherProvider weatherProvider) {
+		this.weatherProvider = weatherProvider;
+	}
+
+	/**
+	 * Serves connections until the server socket fails.
+	 */
+	@Override
+	public void run() {
+		ExecutorService executor = TaskExecutors.newExecutor("weather-binary", CONNECTIONS);
+		ExecutorService writeExecutor = TaskExecutors.newExecutor("weather-binary-write", CONNECTIONS);
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress(HOST, PORT));
+			System.out.println("Serving binary protocol on " + HOST + ":" + PORT);
+			serve(server, executor, writeExecutor);
+		} catch (IOException ex) {
+			System.err.println("Binary protocol server stopped: " + ex.getMessage());
+		} finally {
+			executor.shutdown();
+			writeExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * @param server
+	 * 		Bound server socket to accept connections from.
+	 * @param executor
+	 * 		Executor to serve each connection on, reading its requests.
+	 * @param writeExecutor
+	 * 		Executor to write responses on, with at most one task per connection at a time.
+	 * 		Separate from the executor of connections, so that connections blocked on reading never hold up responses.
+	 *
+	 * @throws IOException
+	 * 		When the server socket fails.
+	 */
+	public void serve(ServerSocketChannel server, Executor executor, Executor writeExecutor) throws IOException {
+		while (true) {
+			SocketChannel channel = server.accept();
+			executor.execute(() -> new Connection(channel, writeExecutor).serve());
+		}
+	}
+
+	/**
+	 * @param text
+	 * 		Text to look up in the shared vocabulary.
+	 *
+	 * @return Id of the text, or {@code null} if it is not in the vocabulary and the vocabulary is full.
+	 */
+	@Nullable
+	private Integer textId(String text) {
+		Integer id = textIds.get(text);
+		if (id != null)
+			return id;
+		// Texts are a small vocabulary, the bound only guards against an API answering with arbitrary texts
+		if (textIds.size() >= MAX_TEXTS)
+			return null;
+		return textIds.computeIfAbsent(text, ignored -> nextTextId.getAndIncrement());
+	}
+
+	/**
+	 * @param text
+	 * 		Text to encode.
+	 * @param maxSize
+	 * 		Maximum number of bytes.
+	 *
+	 * @return UTF-8 of the text, cut at a character boundary to at most the maximum number of bytes.
+	 */
+	private static byte[] utf8(String text, int maxSize) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length <= maxSize)
+			return bytes;
+		// Back off over continuation bytes, so that the cut does not split a character
+		int end = maxSize;
+		while (end > 0 && (bytes[end] & 0xC0) == 0x80)
+			end--;
+		return Arrays.copyOf(bytes, end);
+	}
+
+	private final class Connection {
+		private final SocketChannel channel;
+		private final Executor writeExecutor;
+		private final Semaphore pipelined = new Semaphore(MAX_PIPELINED);
+		// Responses in the order they were decided, written by at most one task at a time
+		private final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean writing = new AtomicBoolean();
+		// Ids of texts already defined on this connection, guarded by the connection
+		private final BitSet definedTexts = new BitSet();
+
+		private Connection(SocketChannel channel, Executor writeExecutor) {
+			this.channel = channel;
+			this.writeExecutor = writeExecutor;
+		}
+
+		private void serve() {
+			ByteBuffer length = ByteBuffer.allocate(4);
+			ByteBuffer request = ByteBuffer.allocate(REQUEST_SIZE);
+			try (channel) {
+				while (readFully(length.clear(), true)) {
+					if (length.getInt(0) != REQUEST_SIZE)
+						throw new IOException("Invalid request length: " + length.getInt(0));
+					readFully(request.clear(), false);
+					int id = request.getInt(0);
+					double latitude = request.getDouble(4);
+					double longitude = request.getDouble(12);
+					pipelined.acquire();
+					handle(id, latitude, longitude);
+				}
+				// Let pending responses finish before closing
+				pipelined.acquire(MAX_PIPELINED);
+			} catch (IOException ex) {
+				// Client went away or broke the protocol, either way the connection is done
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void handle(int id, double latitude, double longitude) {
+			if (!(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) {
+				respondFailure(id, STATUS_BAD_REQUEST, "Coordinates out of range");
+				return;
+			}
+			weatherProvider.forLocationAsync(new Location(latitude, longitude)).whenComplete((weather, failure) -> {
+				if (failure == null)
+					respond(id, weather);
+				else
+					respondFailure(id, STATUS_LOOKUP_FAILED, String.valueOf(Futures.unwrap(failure).getMessage()));
+			});
+		}
+
+		private void respond(int id, Weather weather) {
+			String[] texts = {
+					weather.getTemperature().getDegreesMeasurement(),
+					weather.getWind().getMeasurement(),
+					weather.getWind().getDirection(),
+					weather.getForecast()
+			};
+			int[] ids = new int[texts.length];
+			boolean[] inline = new boolean[texts.length];
+			for (int i = 0; i < texts.length; i++) {
+				Integer textId = texts[i] == null ? Integer.valueOf(NO_TEXT_ID) : textId(texts[i]);
+				inline[i] = textId == null;
+				ids[i] = inline[i] ? FIRST_INLINE_TEXT_ID - i : textId;
+			}
+			synchronized (this) {
+				// Definitions depend on what this connection was sent before, so they are decided in send order
+				int definitionsSize = 0;
+				int definitionCount = 0;
+				byte[][] definitions = new byte[texts.length][];
+				for (int i = 0; i < texts.length; i++) {
+					if (texts[i] == null || (!inline[i] && definedTexts.get(ids[i])))
+						continue;
+					if (!inline[i])
+						definedTexts.set(ids[i]);
+					definitions[i] = utf8(texts[i], MAX_TEXT_SIZE);
+					definitionsSize += 6 + definitions[i].length;
+					definitionCount++;
+				}
+				ByteBuffer response = ByteBuffer.allocate(4 + 31 + definitionsSize);
+				response.putInt(31 + definitionsSize)
+						.putInt(id)
+						.put(STATUS_OK)
+						.putFloat((float) weather.getTemperature().getDegrees())
+						.putFloat((float) weather.getWind().getSpeed());
+				for (int textId : ids)
+					response.putInt(textId);
+				response.putShort((short) definitionCount);
+				for (int i = 0; i < texts.length; i++) {
+					if (definitions[i] == null)
+						continue;
+					response.putInt(ids[i]).putShort((short) definitions[i].length).put(definitions[i]);
+				}
+				send(response.flip());
+			}
+		}
+
+		private void respondFailure(int id, byte status, String reason) {
+			byte[] message = utf8(reason, MAX_REASON_SIZE);
+			ByteBuffer response = ByteBuffer.allocate(4 + 7 + message.length)
+					.putInt(7 + message.length)
+					.putInt(id)
+					.put(status)
+					.putShort((short) message.length)
+					.put(message)
+					.flip();
+			synchronized (this) {
+				send(response);
+			}
+		}
+
+		/**
+		 * Queues a response, to be written off the thread that completed the lookup.
+		 *
+		 * @param response
+		 * 		Complete response, including its length prefix.
+		 */
+		private void send(ByteBuffer response) {
+			responses.add(response);
+			if (!writing.compareAndSet(false, true))
+				return; // The running write task picks it up
+			try {
+				writeExecutor.execute(this::writeQueued);
+			} catch (RejectedExecutionException ex) {
+				// Server is shutting down, write what is left here rather than leave the reading side waiting
+				writeQueued();
+			}
+		}
+
+		private void writeQueued() {
+			do {
+				ByteBuffer response;
+				while ((response = responses.poll()) != null)
+					write(response);
+				writing.set(false);
+				// Check again, a response queued after the last poll but before the flag cleared has no task yet
+			} while (!responses.isEmpty() && writing.compareAndSet(false, true));
+		}
+
+		private void write(ByteBuffer response) {
+			try {
+				while (response.hasRemaining())
+					channel.write(response);
+			} catch (IOException ex) {
+				// Client went away, the reading side notices as well
+			} finally {
+				pipelined.release();
+			}
+		}
+
+		private boolean readFully(ByteBuffer buffer, boolean allowEnd) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					if (allowEnd && buffer.position() == 0)
+						return false;
+					throw new EOFException("Connection closed within a request");
+				}
+			}
+			return true;
+		}
+	}
+}
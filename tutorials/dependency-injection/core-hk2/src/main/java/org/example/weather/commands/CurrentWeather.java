@@ -1,13 +1,16 @@
 package org.example.weather.commands;
 
 import org.example.weather.WeatherApplication;
+import org.example.weather.data.Location;
 import org.example.weather.data.LocationLookupException;
 import org.example.weather.data.Weather;
 import org.example.weather.data.WeatherLookupException;
 import org.example.weather.interfaces.ILocationProvider;
 import org.example.weather.interfaces.IWeatherProvider;
+import org.example.weather.util.Futures;
 
 import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Command to show current weather at current location.
@@ -26,14 +29,30 @@ public CurrentWeather(IWeatherProvider weatherProvider, ILocationProvider locati
 	@Override
 	public void handleCommand(WeatherApplication context, String[] args) {
 		try {
-			Weather weather = weatherProvider.forLocation(locationProvider.currentLocation());
-			System.out.println("Temperature: " + weather.getTemperature() + "\n" +
+			// Start the forecast of the last known location while the current location is resolved.
+			// In the common case of not having moved, the forecast is then well under way once the location is known.
+			Location lastKnownLocation = locationProvider.lastKnownLocation();
+			CompletableFuture<Weather> speculativeWeather = lastKnownLocation == null ?
+					null : weatherProvider.forLocationAsync(lastKnownLocation);
+			Location location = locationProvider.currentLocation();
+			Weather weather = speculativeWeather != null && location.equals(lastKnownLocation) ?
+					Futures.await(speculativeWeather, WeatherLookupException.class, WeatherLookupException::new) :
+					weatherProvider.forLocation(location);
+			context.out().println("Temperature: " + weather.getTemperature() + "\n" +
 					"Forecast:    " + weather.getForecast() + "\n" +
 					"Wind:        " + weather.getWind());
 		} catch (WeatherLookupException ex) {
-			System.err.println("Failed to determine weather for current location");
+			context.err().println("Failed to determine weather for current location");
 		} catch (LocationLookupException ex) {
-			System.err.println("Failed to determine current location");
+			context.err().println("Failed to determine current location");
 		}
 	}
+
+	@Override
+	public void warmUp() {
+		Location lastKnownLocation = locationProvider.lastKnownLocation();
+		if (lastKnownLocation != null)
+			weatherProvider.forLocationAsync(lastKnownLocation);
+		locationProvider.currentLocationAsync().thenCompose(weatherProvider::forLocationAsync);
+	}
 }
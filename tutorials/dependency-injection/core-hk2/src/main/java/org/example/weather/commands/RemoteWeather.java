@@ -32,13 +32,13 @@ public void handleCommand(WeatherApplication context, String[] args) {
 			if (Math.abs(longitude) > 180)
 				throw new IllegalArgumentException("Longitude must be within [+180, -180]");
 			Weather weather = weatherProvider.forLocation(new Location(latitude, longitude));
-			System.out.println("Temperature: " + weather.getTemperature() + "\n" +
+			context.out().println("Temperature: " + weather.getTemperature() + "\n" +
 					"Forecast:    " + weather.getForecast() + "\n" +
 					"Wind:        " + weather.getWind());
 		} catch (WeatherLookupException ex) {
-			System.err.println("Failed to determine weather for requested location");
+			context.err().println("Failed to determine weather for requested location");
 		} catch (NumberFormatException ex) {
-			System.err.println("Failed to parse lat/lon arguments");
+			context.err().println("Failed to parse lat/lon arguments");
 		}
 	}
 }
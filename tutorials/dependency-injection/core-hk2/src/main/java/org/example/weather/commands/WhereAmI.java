@@ -1,7 +1,6 @@
 package org.example.weather.commands;
 
 import org.example.weather.WeatherApplication;
-import org.example.weather.commands.AbstractCommand;
 import org.example.weather.data.Location;
 import org.example.weather.data.LocationLookupException;
 import org.example.weather.interfaces.ILocationProvider;
@@ -24,9 +23,14 @@ public WhereAmI(ILocationProvider locationProvider) {
 	public void handleCommand(WeatherApplication context, String[] args) {
 		try {
 			Location location = locationProvider.currentLocation();
-			System.out.println(location);
+			context.out().println(location);
 		} catch (LocationLookupException ex) {
-			System.err.println("Failed to determine current location");
+			context.err().println("Failed to determine current location");
 		}
 	}
+
+	@Override
+	public void warmUp() {
+		locationProvider.currentLocationAsync();
+	}
 }
@@ -0,0 +1,143 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Location;
+import org.example.weather.data.LocationLookupException;
+import org.example.weather.interfaces.ILocationProvider;
+import org.example.weather.interfaces.INetworkAccessor;
+import org.example.weather.util.Futures;
+import org.example.weather.util.LazyValue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outline of location lookup based on IP, where the current location is the location of the external address.
+ * Implementations provide the lookup of an address.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.lastLocation} - Path of the file the last known location is kept in across runs.
+ *     Defaults to {@code .weather-location} in the user home directory.</li>
+ * </ul>
+ */
+public abstract class AbstractLocationProvider implements ILocationProvider {
+	private static final long CURRENT_LOCATION_TTL_MINUTES = 30;
+	private static final long CURRENT_LOCATION_REFRESH_MINUTES = 20;
+	private static final Path LAST_LOCATION_PATH = Paths.get(System.getProperty("weather.lastLocation",
+			Paths.get(System.getProperty("user.home"), ".weather-location").toString()));
+	// Writes of the last location file, shared by every provider so that writes never overtake each other
+	private static final ExecutorService LAST_LOCATION_WRITER = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "weather-location-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// Current location follows the external address, which can change, so it is looked up again now and then
+	private final LazyValue<Location> currentLocation = new LazyValue<>(this::requestCurrentLocation,
+			CURRENT_LOCATION_TTL_MINUTES, CURRENT_LOCATION_REFRESH_MINUTES, TimeUnit.MINUTES);
+	private final INetworkAccessor accessor;
+	private Location lastKnownLocation;
+	private boolean lastKnownLocationRead;
+	private boolean lastLocationWriteScheduled;
+
+	public AbstractLocationProvider(INetworkAccessor accessor) {
+		this.accessor = accessor;
+	}
+
+	@Override
+	public Location currentLocation() throws LocationLookupException {
+		return Futures.await(currentLocationAsync(), LocationLookupException.class, LocationLookupException::new);
+	}
+
+	@Override
+	public CompletableFuture<Location> currentLocationAsync() {
+		return currentLocation.getAsync();
+	}
+
+	@Override
+	@Nullable
+	public synchronized Location lastKnownLocation() {
+		if (!lastKnownLocationRead) {
+			lastKnownLocationRead = true;
+			if (lastKnownLocation == null)
+				lastKnownLocation = readLastLocation();
+		}
+		return lastKnownLocation;
+	}
+
+	@Override
+	public Location forAddress(@Nonnull InetAddress address) throws LocationLookupException {
+		return Futures.await(forAddressAsync(address), LocationLookupException.class, LocationLookupException::new);
+	}
+
+	private CompletableFuture<Location> requestCurrentLocation() {
+		// Get IP from accessor, then lookup its location
+		CompletableFuture<Location> lookup = accessor.externalAddressAsync()
+				.thenCompose(this::forAddressAsync)
+				.thenApply(location -> {
+					rememberLocation(location);
+					return location;
+				});
+		return Futures.mapFailure(lookup, LocationLookupException.class, LocationLookupException::new);
+	}
+
+	private synchronized void rememberLocation(Location location) {
+		lastKnownLocationRead = true;
+		if (location.equals(lastKnownLocation))
+			return;
+		lastKnownLocation = location;
+		if (lastLocationWriteScheduled)
+			return;
+		lastLocationWriteScheduled = true;
+		// Written off the thread completing the lookup, which belongs to the HTTP client.
+		// Changes made while the write is pending are coalesced into it.
+		LAST_LOCATION_WRITER.execute(this::writeLastLocation);
+	}
+
+	private void writeLastLocation() {
+		Location location;
+		synchronized (this) {
+			lastLocationWriteScheduled = false;
+			location = lastKnownLocation;
+		}
+		// Best effort, without the file the next run just has no location to speculate on.
+		// Likewise a run exiting before the daemon writer got to it only leaves the previous location behind.
+		Path temp = null;
+		try {
+			temp = Files.createTempFile(LAST_LOCATION_PATH.toAbsolutePath().getParent(),
+					LAST_LOCATION_PATH.getFileName().toString(), ".tmp");
+			Files.writeString(temp, location.getLatitude() + "," + location.getLongitude());
+			Files.move(temp, LAST_LOCATION_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException ex) {
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ignored) {
+					// Ignored
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private static Location readLastLocation() {
+		try {
+			String[] coordinates = Files.readString(LAST_LOCATION_PATH).trim().split(",");
+			if (coordinates.length != 2)
+				return null;
+			return new Location(Double.parseDouble(coordinates[0]), Double.parseDouble(coordinates[1]));
+		} catch (IOException | RuntimeException ignored) {
+			// Missing or malformed, so there is no last known location
+			return null;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Location;
+import org.example.weather.util.ByteScanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming matcher for the coordinates row of the location lookup page, which looks like:
+ * <pre>{@code
+ * <tr><th>Coordinates</th><td>38.8951, -77.0364</td></tr>
+ * }</pre>
+ * Bytes are matched one at a time by a state machine, so the row may span chunk boundaries
+ * and no part of the page is kept besides the digits of the coordinates.
+ */
+final class CoordinateScanner implements ByteScanner<Location> {
+	private static final byte[] LABEL = "Coordinates".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] LABEL_END = "</th>".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] VALUE_START = "<td".getBytes(StandardCharsets.US_ASCII);
+	private static final int MAX_NUMBER_LENGTH = 24;
+	private static final int MAX_EXACT_DIGITS = 15;
+	private final long maxBytes;
+	private final byte[] number = new byte[MAX_NUMBER_LENGTH];
+	private State state = State.LABEL;
+	private int matched;
+	private int numberLength;
+	private long scanned;
+	private double latitude;
+	private double longitude;
+
+	/**
+	 * @param maxBytes
+	 * 		Maximum number of bytes to scan for the row before giving up.
+	 */
+	CoordinateScanner(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public boolean feed(ByteBuffer chunk) throws IOException {
+		while (chunk.hasRemaining()) {
+			if (++scanned > maxBytes)
+				throw new IOException("Location lookup API did not yield 'Coordinates' within " + maxBytes + " bytes");
+			if (step(chunk.get()))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Location result() throws IOException {
+		if (state != State.DONE)
+			throw new IOException("Location lookup API output format changed! Content could not be parsed.");
+		return new Location(latitude, longitude);
+	}
+
+	private boolean step(byte b) {
+		switch (state) {
+			case LABEL:
+				if (b == LABEL[matched]) {
+					if (++matched == LABEL.length)
+						next(State.LABEL_END);
+				} else {
+					// The label has no repeated prefix, so a mismatch can only restart at the current byte
+					matched = b == LABEL[0] ? 1 : 0;
+				}
+				return false;
+			case LABEL_END:
+				return expect(b, LABEL_END, State.VALUE_START);
+			case VALUE_START:
+				return expect(b, VALUE_START, State.VALUE_TAG);
+			case VALUE_TAG:
+				if (b == '>')
+					next(State.LATITUDE);
+				return false;
+			case LATITUDE:
+				if (isWhitespace(b) && numberLength == 0)
+					return false;
+				if (appendNumber(b))
+					return false;
+				latitude = parseNumber();
+				if (Double.isNaN(latitude)) {
+					restart(b);
+					return false;
+				}
+				next(State.SEPARATOR);
+				return step(b);
+			case SEPARATOR:
+				if (b == ',')
+					next(State.LONGITUDE);
+				else if (!isWhitespace(b))
+					restart(b);
+				return false;
+			case LONGITUDE:
+				if (isWhitespace(b) && numberLength == 0)
+					return false;
+				if (appendNumber(b))
+					return false;
+				longitude = parseNumber();
+				if (Double.isNaN(longitude) || (!isWhitespace(b) && b != '<')) {
+					restart(b);
+					return false;
+				}
+				state = State.DONE;
+				return true;
+			default:
+				return true;
+		}
+	}
+
+	private boolean expect(byte b, byte[] token, State then) {
+		// Whitespace is allowed ahead of the token, but not within it
+		if (matched == 0 && isWhitespace(b))
+			return false;
+		if (b != token[matched]) {
+			restart(b);
+			return false;
+		}
+		if (++matched == token.length)
+			next(then);
+		return false;
+	}
+
+	private boolean appendNumber(byte b) {
+		if ((b < '0' || b > '9') && b != '.' && b != '-')
+			return false;
+		if (numberLength == MAX_NUMBER_LENGTH) {
+			// Not a coordinate, so the row is something else
+			restart(b);
+			return true;
+		}
+		number[numberLength++] = b;
+		return true;
+	}
+
+	private double parseNumber() {
+		// Digits are accumulated as an integer mantissa, which is then scaled once.
+		// Both the mantissa and the power of ten are exact for coordinate precision, so the result is correctly rounded.
+		if (numberLength == 0)
+			return Double.NaN;
+		int i = 0;
+		boolean negative = number[0] == '-';
+		if (negative)
+			i++;
+		long mantissa = 0;
+		int fractionDigits = -1;
+		int digits = 0;
+		for (; i < numberLength; i++) {
+			byte b = number[i];
+			if (b == '.') {
+				if (fractionDigits >= 0)
+					return Double.NaN;
+				fractionDigits = 0;
+				continue;
+			}
+			if (b == '-' || ++digits > MAX_EXACT_DIGITS)
+				return Double.NaN;
+			mantissa = mantissa * 10 + (b - '0');
+			if (fractionDigits >= 0)
+				fractionDigits++;
+		}
+		if (digits == 0)
+			return Double.NaN;
+		double value = fractionDigits > 0 ? mantissa / Math.pow(10, fractionDigits) : mantissa;
+		return negative ? -value : value;
+	}
+
+	private void restart(byte b) {
+		next(State.LABEL);
+		matched = b == LABEL[0] ? 1 : 0;
+	}
+
+	private void next(State state) {
+		this.state = state;
+		matched = 0;
+		numberLength = 0;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+	}
+
+	private enum State {
+		LABEL, LABEL_END, VALUE_START, VALUE_TAG, LATITUDE, SEPARATOR, LONGITUDE, DONE
+	}
+}
@@ -0,0 +1,243 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Temperature;
+import org.example.weather.data.Weather;
+import org.example.weather.data.Wind;
+import org.example.weather.util.Polygon;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly forecast of a grid point, decoded once into columns of primitives.
+ * <p>
+ * Each period is a row across the columns. Forecast text and units repeat heavily across the periods of a forecast,
+ * so they are stored as indices into a table of distinct values. Wind directions are codes into a table seeded with
+ * the 16 compass points. Rows are ordered by start time, so the period covering a given time is found by binary search.
+ */
+final class ForecastSeries {
+	private static final String[] COMPASS = {
+			"N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE", "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"
+	};
+	private final long[] startTimes;
+	private final long[] endTimes;
+	private final float[] temperatures;
+	private final float[] windSpeeds;
+	private final short[] forecastIds;
+	private final short[] temperatureUnitIds;
+	private final short[] windUnitIds;
+	private final byte[] directionCodes;
+	private final String[] texts;
+	private final String[] directions;
+	private final Polygon cell;
+	private final long updatedAt;
+	private final long validUntil;
+
+	private ForecastSeries(Builder builder, @Nullable Polygon cell, long updatedAt, long validUntil) {
+		int count = builder.count;
+		this.startTimes = Arrays.copyOf(builder.startTimes, count);
+		this.endTimes = Arrays.copyOf(builder.endTimes, count);
+		this.temperatures = Arrays.copyOf(builder.temperatures, count);
+		this.windSpeeds = Arrays.copyOf(builder.windSpeeds, count);
+		this.forecastIds = Arrays.copyOf(builder.forecastIds, count);
+		this.temperatureUnitIds = Arrays.copyOf(builder.temperatureUnitIds, count);
+		this.windUnitIds = Arrays.copyOf(builder.windUnitIds, count);
+		this.directionCodes = Arrays.copyOf(builder.directionCodes, count);
+		this.texts = builder.texts.toArray(new String[0]);
+		this.directions = builder.directions.toArray(new String[0]);
+		this.cell = cell;
+		this.updatedAt = updatedAt;
+		this.validUntil = count == 0 ? updatedAt : Math.min(validUntil, endTimes[count - 1]);
+	}
+
+	/**
+	 * @param time
+	 * 		Epoch millis to get the weather at.
+	 *
+	 * @return Weather of the period covering the given time, or {@code null} if no period covers it.
+	 */
+	@Nullable
+	Weather weatherAt(long time) {
+		int index = indexOf(time);
+		if (index < 0)
+			return null;
+		Temperature temperature = new Temperature(temperatures[index], texts[temperatureUnitIds[index]]);
+		Wind wind = new Wind(windSpeeds[index], texts[windUnitIds[index]], directions[directionCodes[index]]);
+		return new Weather(temperature, wind, texts[forecastIds[index]]);
+	}
+
+	/**
+	 * @param time
+	 * 		Epoch millis to check.
+	 *
+	 * @return {@code true} when a period covers the given time.
+	 */
+	boolean covers(long time) {
+		return indexOf(time) >= 0;
+	}
+
+	/**
+	 * @return Number of periods in the series.
+	 */
+	int size() {
+		return startTimes.length;
+	}
+
+	/**
+	 * @return Bounds of the grid cell the forecast applies to, or {@code null} if not given.
+	 */
+	@Nullable
+	Polygon getCell() {
+		return cell;
+	}
+
+	/**
+	 * @return Epoch millis of when the forecast was last updated, or {@code -1} if unknown.
+	 */
+	long getUpdatedAt() {
+		return updatedAt;
+	}
+
+	/**
+	 * @return Epoch millis of when the last period, or the forecast as a whole, stops being valid.
+	 */
+	long getValidUntil() {
+		return validUntil;
+	}
+
+	private int indexOf(long time) {
+		if (time >= validUntil)
+			return -1;
+		int index = Arrays.binarySearch(startTimes, time);
+		if (index < 0) {
+			// Not an exact start, so take the period starting before it
+			index = -index - 2;
+			if (index < 0)
+				return -1;
+		}
+		return time < endTimes[index] ? index : -1;
+	}
+
+	/**
+	 * Accumulates periods into growable columns.
+	 */
+	static final class Builder {
+		private final Map<String, Short> textIds = new HashMap<>();
+		private final List<String> texts = new ArrayList<>();
+		private final Map<String, Byte> directionIds = new HashMap<>();
+		private final List<String> directions = new ArrayList<>(Arrays.asList(COMPASS));
+		private long[] startTimes = new long[64];
+		private long[] endTimes = new long[64];
+		private float[] temperatures = new float[64];
+		private float[] windSpeeds = new float[64];
+		private short[] forecastIds = new short[64];
+		private short[] temperatureUnitIds = new short[64];
+		private short[] windUnitIds = new short[64];
+		private byte[] directionCodes = new byte[64];
+		private int count;
+
+		Builder() {
+			for (int i = 0; i < COMPASS.length; i++)
+				directionIds.put(COMPASS[i], (byte) i);
+		}
+
+		/**
+		 * @param startTime
+		 * 		Epoch millis the period starts at.
+		 * @param endTime
+		 * 		Epoch millis the period ends at.
+		 * @param temperature
+		 * 		Temperature value.
+		 * @param temperatureUnit
+		 * 		Temperature unit.
+		 * @param windSpeed
+		 * 		Wind speed value.
+		 * @param windUnit
+		 * 		Wind speed unit.
+		 * @param windDirection
+		 * 		Wind direction.
+		 * @param forecast
+		 * 		Short forecast text.
+		 *
+		 * @throws IllegalStateException
+		 * 		When periods are not added in order of start time, or there are too many distinct values.
+		 */
+		void add(long startTime, long endTime, double temperature, String temperatureUnit,
+				 double windSpeed, String windUnit, String windDirection, String forecast) {
+			if (count > 0 && startTime < endTimes[count - 1])
+				throw new IllegalStateException("Forecast periods overlap or are out of order");
+			if (count == startTimes.length)
+				grow();
+			startTimes[count] = startTime;
+			endTimes[count] = endTime;
+			temperatures[count] = (float) temperature;
+			windSpeeds[count] = (float) windSpeed;
+			forecastIds[count] = textId(forecast);
+			temperatureUnitIds[count] = textId(temperatureUnit);
+			windUnitIds[count] = textId(windUnit);
+			directionCodes[count] = directionCode(windDirection);
+			count++;
+		}
+
+		/**
+		 * @param cell
+		 * 		Bounds of the grid cell the forecast applies to.
+		 * @param updatedAt
+		 * 		Epoch millis of when the forecast was last updated, or {@code -1} if unknown.
+		 * @param validUntil
+		 * 		Epoch millis of when the forecast as a whole stops being valid.
+		 *
+		 * @return Series of the added periods.
+		 */
+		ForecastSeries build(@Nullable Polygon cell, long updatedAt, long validUntil) {
+			return new ForecastSeries(this, cell, updatedAt, validUntil);
+		}
+
+		/**
+		 * @return Number of added periods.
+		 */
+		int size() {
+			return count;
+		}
+
+		private short textId(String text) {
+			Short id = textIds.get(text);
+			if (id == null) {
+				if (texts.size() > Short.MAX_VALUE)
+					throw new IllegalStateException("Too many distinct forecast texts");
+				id = (short) texts.size();
+				textIds.put(text, id);
+				texts.add(text);
+			}
+			return id;
+		}
+
+		private byte directionCode(String direction) {
+			Byte code = directionIds.get(direction);
+			if (code == null) {
+				if (directions.size() > Byte.MAX_VALUE)
+					throw new IllegalStateException("Too many distinct wind directions");
+				code = (byte) directions.size();
+				directionIds.put(direction, code);
+				directions.add(direction);
+			}
+			return code;
+		}
+
+		private void grow() {
+			int capacity = startTimes.length * 2;
+			startTimes = Arrays.copyOf(startTimes, capacity);
+			endTimes = Arrays.copyOf(endTimes, capacity);
+			temperatures = Arrays.copyOf(temperatures, capacity);
+			windSpeeds = Arrays.copyOf(windSpeeds, capacity);
+			forecastIds = Arrays.copyOf(forecastIds, capacity);
+			temperatureUnitIds = Arrays.copyOf(temperatureUnitIds, capacity);
+			windUnitIds = Arrays.copyOf(windUnitIds, capacity);
+			directionCodes = Arrays.copyOf(directionCodes, capacity);
+		}
+	}
+}
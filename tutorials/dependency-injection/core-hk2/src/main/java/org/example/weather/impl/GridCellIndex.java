@@ -0,0 +1,111 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.GridPoint;
+import org.example.weather.util.Cache;
+import org.example.weather.util.Polygon;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spatial index of forecast grid cells, to find the grid point of a location without asking the points API.
+ * <p>
+ * Cells are bucketed by their bounding box into 0.1 degree buckets, so a lookup only tests the few cells
+ * registered in the bucket of the location.
+ */
+final class GridCellIndex {
+	private static final double BUCKETS_PER_DEGREE = 10;
+	private static final int MAX_BUCKETS_PER_CELL = 16;
+	private final Cache<Long, Cell[]> buckets;
+	private final long ttl;
+	private final TimeUnit unit;
+
+	/**
+	 * @param maxBuckets
+	 * 		Maximum number of buckets to keep.
+	 * @param ttl
+	 * 		Time a cell remains in the index for.
+	 * @param unit
+	 * 		Unit of the time to live.
+	 */
+	GridCellIndex(long maxBuckets, long ttl, TimeUnit unit) {
+		this.buckets = Cache.ofMaxEntries(maxBuckets);
+		this.ttl = ttl;
+		this.unit = unit;
+	}
+
+	/**
+	 * @param latitude
+	 * 		Location latitude.
+	 * @param longitude
+	 * 		Location longitude.
+	 *
+	 * @return Grid point of the cell containing the location, or {@code null} if no known cell contains it.
+	 */
+	@Nullable
+	GridPoint find(double latitude, double longitude) {
+		Cell[] cells = buckets.get(bucket(latitude, longitude));
+		if (cells == null)
+			return null;
+		for (Cell cell : cells)
+			if (cell.polygon.contains(latitude, longitude))
+				return cell.gridPoint;
+		return null;
+	}
+
+	/**
+	 * @param gridPoint
+	 * 		Grid point of the cell.
+	 * @param polygon
+	 * 		Bounds of the cell.
+	 */
+	synchronized void add(GridPoint gridPoint, Polygon polygon) {
+		long minLat = index(polygon.getMinLatitude());
+		long maxLat = index(polygon.getMaxLatitude());
+		long minLon = index(polygon.getMinLongitude());
+		long maxLon = index(polygon.getMaxLongitude());
+		// Grid cells are a few kilometers wide, anything spanning many buckets is not worth indexing
+		if ((maxLat - minLat + 1) * (maxLon - minLon + 1) > MAX_BUCKETS_PER_CELL)
+			return;
+		Cell cell = new Cell(gridPoint, polygon);
+		for (long lat = minLat; lat <= maxLat; lat++) {
+			for (long lon = minLon; lon <= maxLon; lon++) {
+				long key = key(lat, lon);
+				Cell[] existing = buckets.get(key);
+				if (existing == null)
+					existing = new Cell[0];
+				// Copy on write, so concurrent lookups never see a partially updated bucket
+				Cell[] updated = new Cell[existing.length + 1];
+				int size = 0;
+				for (Cell other : existing)
+					if (!other.gridPoint.equals(gridPoint))
+						updated[size++] = other;
+				updated[size++] = cell;
+				buckets.put(key, Arrays.copyOf(updated, size), ttl, unit);
+			}
+		}
+	}
+
+	private static long bucket(double latitude, double longitude) {
+		return key(index(latitude), index(longitude));
+	}
+
+	private static long index(double degrees) {
+		return (long) Math.floor(degrees * BUCKETS_PER_DEGREE);
+	}
+
+	private static long key(long latIndex, long lonIndex) {
+		return (latIndex << 32) ^ (lonIndex & 0xFFFFFFFFL);
+	}
+
+	private static final class Cell {
+		private final GridPoint gridPoint;
+		private final Polygon polygon;
+
+		private Cell(GridPoint gridPoint, Polygon polygon) {
+			this.gridPoint = gridPoint;
+			this.polygon = polygon;
+		}
+	}
+}
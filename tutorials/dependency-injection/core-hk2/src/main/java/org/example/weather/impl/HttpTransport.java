@@ -0,0 +1,192 @@
+package org.example.weather.impl;
+
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.util.ByteScanner;
+import org.example.weather.util.Validators;
+import org.jvnet.hk2.annotations.Service;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.IntFunction;
+
+/**
+ * Implementation of HTTP requests backed by a single {@link HttpClient}.
+ * <p>
+ * The client keeps connections alive in its own pool and negotiates HTTP/2 where the server supports it,
+ * so repeated lookups against the same host share one connection instead of paying a new TCP and TLS handshake.
+ * Marked as a singleton so that containers which honor scopes hand out the same pool to every consumer.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.http.connectTimeout} - Connect timeout in milliseconds.</li>
+ *     <li>{@code weather.http.readTimeout} - Timeout in milliseconds for a response to arrive after sending a request.</li>
+ *     <li>{@code weather.http.version} - Either {@code HTTP_2} or {@code HTTP_1_1}.</li>
+ * </ul>
+ * The pooled connection lifetime is controlled by the JDK's own {@code jdk.httpclient.keepalive.timeout} property.
+ */
+@Singleton
+@Service
+public class HttpTransport implements IHttpTransport {
+	private static final long CONNECT_TIMEOUT_MS = Long.getLong("weather.http.connectTimeout", 5_000);
+	private static final long READ_TIMEOUT_MS = Long.getLong("weather.http.readTimeout", 10_000);
+	private static final int STATUS_OK = 200;
+	private static final int STATUS_NOT_MODIFIED = 304;
+	private static final HttpClient.Version VERSION =
+			HttpClient.Version.valueOf(System.getProperty("weather.http.version", "HTTP_2"));
+	private final HttpClient client;
+
+	public HttpTransport() {
+		client = HttpClient.newBuilder()
+				.version(VERSION)
+				.connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+	}
+
+	@Override
+	public CompletableFuture<String> readStringAsync(String url, IntFunction<String> badStatusMessageProvider) {
+		CompletableFuture<HttpResponse<String>> exchange =
+				client.sendAsync(request(url, Validators.NONE), HttpResponse.BodyHandlers.ofString());
+		return cancellable(exchange, exchange.thenApply(response -> {
+			try {
+				return checkStatus(response, badStatusMessageProvider).body();
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		}));
+	}
+
+	@Override
+	public CompletableFuture<HttpResponse<byte[]>> readBytesAsync(String url, Validators validators,
+																   IntFunction<String> badStatusMessageProvider) {
+		CompletableFuture<HttpResponse<byte[]>> exchange =
+				client.sendAsync(request(url, validators), HttpResponse.BodyHandlers.ofByteArray());
+		return cancellable(exchange, exchange.thenApply(response -> {
+			if (response.statusCode() == STATUS_NOT_MODIFIED && !validators.isEmpty())
+				return response;
+			try {
+				return checkStatus(response, badStatusMessageProvider);
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		}));
+	}
+
+	@Override
+	public <T> CompletableFuture<T> scanAsync(String url, ByteScanner<T> scanner,
+											  IntFunction<String> badStatusMessageProvider) {
+		CompletableFuture<HttpResponse<T>> exchange = client.sendAsync(request(url, Validators.NONE),
+				info -> info.statusCode() == STATUS_OK ?
+						new ScanningSubscriber<>(scanner) : HttpResponse.BodySubscribers.<T>replacing(null));
+		return cancellable(exchange, exchange.thenApply(response -> {
+			try {
+				return checkStatus(response, badStatusMessageProvider).body();
+			} catch (IOException ex) {
+				throw new CompletionException(ex);
+			}
+		}));
+	}
+
+	private static <T> CompletableFuture<T> cancellable(CompletableFuture<?> exchange, CompletableFuture<T> result) {
+		// Cancelling or timing out a dependent stage does not reach the stage it depends on, so pass it on explicitly.
+		// Cancelling the exchange aborts the request, on JDKs which support it.
+		result.whenComplete((value, failure) -> {
+			if (failure != null && !exchange.isDone())
+				exchange.cancel(true);
+		});
+		return result;
+	}
+
+	private static HttpRequest request(String url, Validators validators) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+				.timeout(Duration.ofMillis(READ_TIMEOUT_MS))
+				.GET();
+		if (validators.getEtag() != null)
+			builder.header("If-None-Match", validators.getEtag());
+		if (validators.getLastModified() != null)
+			builder.header("If-Modified-Since", validators.getLastModified());
+		return builder.build();
+	}
+
+	private static <T> HttpResponse<T> checkStatus(HttpResponse<T> response,
+												   IntFunction<String> badStatusMessageProvider) throws IOException {
+		int status = response.statusCode();
+		if (status != STATUS_OK) {
+			throw new IOException(badStatusMessageProvider.apply(status));
+		}
+		return response;
+	}
+
+	/**
+	 * Feeds the body to a scanner, and cancels the transfer once the scanner has its value.
+	 *
+	 * @param <T>
+	 * 		Type of value scanned for.
+	 */
+	private static class ScanningSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+		private final CompletableFuture<T> result = new CompletableFuture<>();
+		private final ByteScanner<T> scanner;
+		private Flow.Subscription subscription;
+
+		private ScanningSubscriber(ByteScanner<T> scanner) {
+			this.scanner = scanner;
+		}
+
+		@Override
+		public CompletionStage<T> getBody() {
+			return result;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(List<ByteBuffer> chunks) {
+			if (result.isDone())
+				return;
+			try {
+				for (ByteBuffer chunk : chunks) {
+					if (scanner.feed(chunk)) {
+						subscription.cancel();
+						result.complete(scanner.result());
+						return;
+					}
+				}
+				subscription.request(1);
+			} catch (IOException | RuntimeException ex) {
+				subscription.cancel();
+				result.completeExceptionally(ex);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			result.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			if (result.isDone())
+				return;
+			try {
+				result.complete(scanner.result());
+			} catch (IOException | RuntimeException ex) {
+				result.completeExceptionally(ex);
+			}
+		}
+	}
+}
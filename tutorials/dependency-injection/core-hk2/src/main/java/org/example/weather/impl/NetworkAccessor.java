@@ -1,34 +1,259 @@
 package org.example.weather.impl;
 
+import org.example.weather.interfaces.IHttpTransport;
 import org.example.weather.interfaces.INetworkAccessor;
+import org.example.weather.util.Futures;
+import org.example.weather.util.InetAddresses;
+import org.example.weather.util.LazyValue;
 import org.jvnet.hk2.annotations.Service;
 
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 /**
  * Implementation to lookup network information.
+ * <p>
+ * The external address is asked of several echo endpoints at once, and the first valid answer wins.
+ * The endpoint expected to be fastest is asked first, the others follow after a hedge delay based on its latency,
+ * or right away if it fails. Once an answer is found, the requests still running are cancelled.
+ * Singleton scoped, so the endpoint latencies and the resolved address are shared.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.ip.endpoints} - Comma separated URLs of endpoints answering with the caller's address.</li>
+ *     <li>{@code weather.ip.timeout} - Time in milliseconds each endpoint has to answer.</li>
+ * </ul>
  */
+@Singleton
 @Service
 public class NetworkAccessor implements INetworkAccessor {
-	private InetAddress externalAddress;
+	private static final List<String> ENDPOINT_URLS = Arrays.stream(System.getProperty("weather.ip.endpoints",
+					"http://checkip.amazonaws.com,https://api.ipify.org,https://icanhazip.com").split(","))
+			.map(String::trim)
+			.filter(url -> !url.isEmpty())
+			.collect(Collectors.toList());
+	private static final long TIMEOUT_MS = Long.getLong("weather.ip.timeout", 3_000);
+	private static final long MIN_HEDGE_DELAY_MS = 20;
+	private static final long ADDRESS_TTL_MINUTES = 30;
+	private static final long ADDRESS_REFRESH_MINUTES = 20;
+	// External addresses can change, such as on reconnects, so the address is looked up again now and then
+	private final LazyValue<InetAddress> externalAddress =
+			new LazyValue<>(this::lookupExternalAddress, ADDRESS_TTL_MINUTES, ADDRESS_REFRESH_MINUTES, TimeUnit.MINUTES);
+	private final IHttpTransport transport;
+	private final List<Endpoint> endpoints;
+	private final long timeoutMs;
+	private final LongSupplier clock;
+	private final LongFunction<Executor> hedgeDelayer;
+
+	@Inject
+	public NetworkAccessor(IHttpTransport transport) {
+		this(transport, ENDPOINT_URLS, TIMEOUT_MS);
+	}
+
+	/**
+	 * @param transport
+	 * 		Transport to make requests with.
+	 * @param endpointUrls
+	 * 		URLs of endpoints answering with the caller's address.
+	 * @param timeoutMs
+	 * 		Time in milliseconds each endpoint has to answer.
+	 */
+	NetworkAccessor(IHttpTransport transport, List<String> endpointUrls, long timeoutMs) {
+		this(transport, endpointUrls, timeoutMs, System::nanoTime,
+				delayMs -> CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @param transport
+	 * 		Transport to make requests with.
+	 * @param endpointUrls
+	 * 		URLs of endpoints answering with the caller's address.
+	 * @param timeoutMs
+	 * 		Time in milliseconds each endpoint has to answer.
+	 * @param clock
+	 * 		Time in nanoseconds, such as {@link System#nanoTime()}, to measure the latencies of endpoints with.
+	 * @param hedgeDelayer
+	 * 		Executor for a delay in milliseconds, running its tasks once the delay has passed. Starts the hedges.
+	 */
+	NetworkAccessor(IHttpTransport transport, List<String> endpointUrls, long timeoutMs, LongSupplier clock,
+					LongFunction<Executor> hedgeDelayer) {
+		if (endpointUrls.isEmpty())
+			throw new IllegalArgumentException("At least one external address endpoint is required");
+		this.transport = transport;
+		this.endpoints = endpointUrls.stream().map(Endpoint::new).collect(Collectors.toList());
+		this.timeoutMs = timeoutMs;
+		this.clock = clock;
+		this.hedgeDelayer = hedgeDelayer;
+	}
 
 	@Override
 	public InetAddress externalAddress() throws IOException {
-		if (externalAddress == null)
-			externalAddress = lookupExternalAddress();
-		return externalAddress;
-	}
-
-	private InetAddress lookupExternalAddress() throws IOException {
-		String ip = new String(new URL("http://checkip.amazonaws.com")
-				.openConnection()
-				.getInputStream()
-				.readAllBytes(),
-				StandardCharsets.UTF_8)
-				.trim();
-		return InetAddress.getByName(ip);
+		return Futures.await(externalAddressAsync(), IOException.class, IOException::new);
+	}
+
+	@Override
+	public CompletableFuture<InetAddress> externalAddressAsync() {
+		return externalAddress.getAsync();
+	}
+
+	/**
+	 * @return Future of a new lookup across the endpoints, without the cached address.
+	 */
+	CompletableFuture<InetAddress> lookupExternalAddress() {
+		return new Race(rankedEndpoints()).start();
+	}
+
+	/**
+	 * @return URLs of the endpoints, in the order the next lookup asks them.
+	 */
+	List<String> endpointRanking() {
+		return rankedEndpoints().stream().map(endpoint -> endpoint.url).collect(Collectors.toList());
+	}
+
+	private List<Endpoint> rankedEndpoints() {
+		List<Endpoint> ranked = new ArrayList<>(endpoints);
+		ranked.sort(Comparator.comparingDouble(Endpoint::rank));
+		return ranked;
+	}
+
+	/**
+	 * A single lookup across the ranked endpoints.
+	 */
+	private final class Race {
+		private final CompletableFuture<InetAddress> result = new CompletableFuture<>();
+		private final List<Endpoint> ranked;
+		private final List<CompletableFuture<String>> attempts = new ArrayList<>();
+		private final AtomicInteger remaining;
+		private final IOException failure = new IOException("None of the external address endpoints answered");
+		private boolean othersStarted;
+		private volatile long winnerElapsedMs;
+
+		private Race(List<Endpoint> ranked) {
+			this.ranked = ranked;
+			this.remaining = new AtomicInteger(ranked.size());
+		}
+
+		private CompletableFuture<InetAddress> start() {
+			result.whenComplete((address, ex) -> cancelAttempts());
+			attempt(ranked.get(0));
+			if (ranked.size() > 1) {
+				long hedgeDelayMs = ranked.get(0).hedgeDelayMs();
+				if (hedgeDelayMs == 0)
+					startOthers();
+				else
+					CompletableFuture.runAsync(this::startOthers, hedgeDelayer.apply(hedgeDelayMs));
+			}
+			return result;
+		}
+
+		private void startOthers() {
+			synchronized (this) {
+				if (othersStarted || result.isDone())
+					return;
+				othersStarted = true;
+			}
+			for (int i = 1; i < ranked.size(); i++)
+				attempt(ranked.get(i));
+		}
+
+		private void attempt(Endpoint endpoint) {
+			long start = clock.getAsLong();
+			CompletableFuture<String> attempt = transport.readStringAsync(endpoint.url,
+					status -> "External address API '" + endpoint.url + "' yielded status code: " + status);
+			synchronized (this) {
+				attempts.add(attempt);
+			}
+			if (result.isDone())
+				attempt.cancel(true); // Started while the race was being decided
+			attempt.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((text, ex) -> {
+				long elapsedMs = TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - start);
+				// Only literals are accepted, so that a bogus response can never trigger a DNS lookup
+				InetAddress address = ex == null ? InetAddresses.parseLiteral(text.trim()) : null;
+				if (address != null) {
+					endpoint.record(elapsedMs);
+					winnerElapsedMs = elapsedMs;
+					result.complete(address);
+					return;
+				}
+				if (attempt.isCancelled()) {
+					// Lost the race, which only tells that it is no faster than the winner.
+					// Its own elapsed time may be far shorter, when it was started late as a hedge.
+					endpoint.recordAtLeast(Math.max(elapsedMs, winnerElapsedMs));
+				} else {
+					endpoint.record(timeoutMs);
+					failure.addSuppressed(ex != null ? Futures.unwrap(ex) :
+							new IOException("External address API '" + endpoint.url + "' yielded no address"));
+				}
+				if (remaining.decrementAndGet() == 0)
+					result.completeExceptionally(failure);
+				else
+					startOthers();
+			});
+		}
+
+		private void cancelAttempts() {
+			List<CompletableFuture<String>> running;
+			synchronized (this) {
+				running = new ArrayList<>(attempts);
+			}
+			for (CompletableFuture<String> attempt : running)
+				attempt.cancel(true);
+		}
+	}
+
+	/**
+	 * External address endpoint, with its moving average latency.
+	 */
+	private static final class Endpoint {
+		private static final double SMOOTHING = 0.3;
+		private final String url;
+		private volatile double latencyMs = Double.NaN;
+
+		private Endpoint(String url) {
+			this.url = url;
+		}
+
+		/**
+		 * @return Rank of the endpoint, lower is preferred. Endpoints without samples rank first, to get one.
+		 */
+		private double rank() {
+			double latency = latencyMs;
+			return Double.isNaN(latency) ? -1 : latency;
+		}
+
+		/**
+		 * @return Time in milliseconds to wait on this endpoint, before asking the others as well.
+		 */
+		private long hedgeDelayMs() {
+			double latency = latencyMs;
+			return Double.isNaN(latency) ? 0 : Math.max(MIN_HEDGE_DELAY_MS, (long) (2 * latency));
+		}
+
+		private synchronized void record(long elapsedMs) {
+			double latency = latencyMs;
+			latencyMs = Double.isNaN(latency) ? elapsedMs : latency + SMOOTHING * (elapsedMs - latency);
+		}
+
+		/**
+		 * @param elapsedMs
+		 * 		Lower bound of the latency. Only raises the average, never lowers it.
+		 */
+		private synchronized void recordAtLeast(long elapsedMs) {
+			if (Double.isNaN(latencyMs) || elapsedMs > latencyMs)
+				record(elapsedMs);
+		}
 	}
 }
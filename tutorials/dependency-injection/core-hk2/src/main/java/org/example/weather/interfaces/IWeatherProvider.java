@@ -1,11 +1,14 @@
 package org.example.weather.interfaces;
 
+import org.example.weather.data.BatchWeather;
 import org.example.weather.data.Location;
 import org.example.weather.data.Weather;
 import org.example.weather.data.WeatherLookupException;
 import org.jvnet.hk2.annotations.Contract;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Tool outline to provide weather lookup by location.
@@ -22,4 +25,25 @@ public interface IWeatherProvider {
 	 * 		When the weather location could not be found for the given location.
 	 */
 	Weather forLocation(@Nonnull Location location) throws WeatherLookupException;
+
+	/**
+	 * @param location
+	 * 		Location coordinates.
+	 *
+	 * @return Future of the weather information for the requested location.
+	 * Completes exceptionally with a {@link WeatherLookupException} when the weather could not be found.
+	 */
+	CompletableFuture<Weather> forLocationAsync(@Nonnull Location location);
+
+	/**
+	 * Looks up many locations at once. Locations sharing a forecast grid cell are served by a single forecast request,
+	 * and distinct forecasts are fetched in parallel.
+	 *
+	 * @param locations
+	 * 		Location coordinates. Duplicates are looked up once.
+	 *
+	 * @return Weather information of each location that could be looked up,
+	 * along with the failure of each location that could not.
+	 */
+	BatchWeather forLocations(@Nonnull Collection<Location> locations);
 }
@@ -0,0 +1,31 @@
+package org.example.weather.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental scanner over a byte stream, fed with chunks as they arrive.
+ *
+ * @param <T>
+ * 		Type of value scanned for.
+ */
+public interface ByteScanner<T> {
+	/**
+	 * @param chunk
+	 * 		Next chunk of the stream. May be consumed only partially once the value is found.
+	 *
+	 * @return {@code true} when the value is found, and no further chunks are needed.
+	 *
+	 * @throws IOException
+	 * 		When the stream can not contain the value, such as after scanning too many bytes.
+	 */
+	boolean feed(ByteBuffer chunk) throws IOException;
+
+	/**
+	 * @return Value scanned for, once {@link #feed(ByteBuffer)} returned {@code true}.
+	 *
+	 * @throws IOException
+	 * 		When the stream ended without the value being found.
+	 */
+	T result() throws IOException;
+}
@@ -0,0 +1,110 @@
+package org.example.weather.util;
+
+import java.util.Arrays;
+
+/**
+ * Splits command lines into whitespace separated tokens, reusing its buffers for every line.
+ * Tokens are exposed as ranges of the buffer, so no strings are created unless asked for.
+ * <p>
+ * Instances are not thread-safe, use one per thread at a time.
+ */
+public class CommandTokenizer {
+	private static final String[] EMPTY_ARGS = new String[0];
+	private final Token name = new Token();
+	private char[] buffer = new char[128];
+	private int[] starts = new int[8];
+	private int[] ends = new int[8];
+	private int count;
+
+	/**
+	 * @param line
+	 * 		Line to tokenize, replacing the tokens of the previous line.
+	 *
+	 * @return Number of tokens.
+	 */
+	public int tokenize(String line) {
+		int length = line.length();
+		if (buffer.length < length)
+			buffer = new char[Math.max(length, buffer.length * 2)];
+		line.getChars(0, length, buffer, 0);
+		count = 0;
+		int i = 0;
+		while (i < length) {
+			while (i < length && Character.isWhitespace(buffer[i]))
+				i++;
+			if (i == length)
+				break;
+			int start = i;
+			while (i < length && !Character.isWhitespace(buffer[i]))
+				i++;
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+			}
+			starts[count] = start;
+			ends[count] = i;
+			count++;
+		}
+		name.set(count > 0 ? starts[0] : 0, count > 0 ? ends[0] : 0);
+		return count;
+	}
+
+	/**
+	 * @return Number of tokens of the current line.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @return View of the first token, valid until the next line is tokenized.
+	 */
+	public CharSequence name() {
+		return name;
+	}
+
+	/**
+	 * @return Tokens after the first one.
+	 */
+	public String[] args() {
+		if (count <= 1)
+			return EMPTY_ARGS;
+		String[] args = new String[count - 1];
+		for (int i = 1; i < count; i++)
+			args[i - 1] = new String(buffer, starts[i], ends[i] - starts[i]);
+		return args;
+	}
+
+	/**
+	 * Reusable view of a range of the buffer.
+	 */
+	private final class Token implements CharSequence {
+		private int start;
+		private int end;
+
+		private void set(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		public int length() {
+			return end - start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return buffer[start + index];
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to) {
+			return new String(buffer, start + from, to - from);
+		}
+
+		@Override
+		public String toString() {
+			return new String(buffer, start, end - start);
+		}
+	}
+}
@@ -0,0 +1,321 @@
+package org.example.weather.util;
+
+import org.example.weather.data.Location;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline IP to location lookup over a compiled database file.
+ * <p>
+ * The file holds IPv4 and IPv6 ranges sorted by their start address, each with fixed size records.
+ * It is memory-mapped, so lookups are a binary search over the mapped records, without reading the file onto the heap.
+ * <p>
+ * Database files are compiled from an IP to city CSV, such as the <i>db-ip.com</i> lite database,
+ * where each row is {@code ip_start,ip_end,...,latitude,longitude}.
+ */
+public class IpLocationDatabase {
+	private static final int MAGIC = 0x57495044; // 'WIPD'
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int V4_RECORD_SIZE = 16; // start, end, latitude, longitude
+	private static final int V6_RECORD_SIZE = 40; // start high/low, end high/low, latitude, longitude
+	private static final double COORDINATE_SCALE = 100_000; // Coordinates are stored as fixed point, at about 1m
+	private final ByteBuffer v4Records;
+	private final ByteBuffer v6Records;
+	private final int v4Count;
+	private final int v6Count;
+
+	private IpLocationDatabase(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not an IP location database file");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported IP location database version: " + buffer.getInt(4));
+		v4Count = buffer.getInt(8);
+		v6Count = buffer.getInt(12);
+		long expectedSize = HEADER_SIZE + (long) v4Count * V4_RECORD_SIZE + (long) v6Count * V6_RECORD_SIZE;
+		if (v4Count < 0 || v6Count < 0 || buffer.capacity() != expectedSize)
+			throw new IOException("Truncated IP location database file");
+		v4Records = buffer.duplicate().position(HEADER_SIZE).limit(HEADER_SIZE + v4Count * V4_RECORD_SIZE).slice();
+		v6Records = buffer.duplicate().position(HEADER_SIZE + v4Count * V4_RECORD_SIZE).slice();
+	}
+
+	/**
+	 * @param path
+	 * 		Path to compiled database file.
+	 *
+	 * @return Database over the memory-mapped file.
+	 *
+	 * @throws IOException
+	 * 		When the file could not be mapped, or is not a database file.
+	 */
+	public static IpLocationDatabase open(Path path) throws IOException {
+		// The mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new IpLocationDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * @param address
+	 * 		Address to lookup.
+	 *
+	 * @return Location of the range containing the address, or {@code null} if no range contains it.
+	 */
+	@Nullable
+	public Location find(InetAddress address) {
+		byte[] bytes = address.getAddress();
+		if (address instanceof Inet4Address)
+			return findV4(toUnsignedInt(bytes));
+		return findV6(toLong(bytes, 0), toLong(bytes, 8));
+	}
+
+	/**
+	 * @return Number of ranges in the database.
+	 */
+	public int size() {
+		return v4Count + v6Count;
+	}
+
+	@Nullable
+	private Location findV4(long address) {
+		// Find the last range starting at or before the address
+		int low = 0;
+		int high = v4Count - 1;
+		int match = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Integer.toUnsignedLong(v4Records.getInt(mid * V4_RECORD_SIZE)) <= address) {
+				match = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (match < 0)
+			return null;
+		int offset = match * V4_RECORD_SIZE;
+		if (Integer.toUnsignedLong(v4Records.getInt(offset + 4)) < address)
+			return null;
+		return new Location(v4Records.getInt(offset + 8) / COORDINATE_SCALE,
+				v4Records.getInt(offset + 12) / COORDINATE_SCALE);
+	}
+
+	@Nullable
+	private Location findV6(long addressHigh, long addressLow) {
+		int low = 0;
+		int high = v6Count - 1;
+		int match = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int offset = mid * V6_RECORD_SIZE;
+			if (compare(v6Records.getLong(offset), v6Records.getLong(offset + 8), addressHigh, addressLow) <= 0) {
+				match = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (match < 0)
+			return null;
+		int offset = match * V6_RECORD_SIZE;
+		if (compare(v6Records.getLong(offset + 16), v6Records.getLong(offset + 24), addressHigh, addressLow) < 0)
+			return null;
+		return new Location(v6Records.getInt(offset + 32) / COORDINATE_SCALE,
+				v6Records.getInt(offset + 36) / COORDINATE_SCALE);
+	}
+
+	/**
+	 * Compiles a CSV database into the binary format read by {@link #open(Path)}.
+	 * The output is written to a temporary file first, so readers never see a partially written database.
+	 *
+	 * @param csv
+	 * 		Path to CSV file, optionally gzip compressed when the name ends with {@code .gz}.
+	 * @param output
+	 * 		Path to write the compiled database to.
+	 *
+	 * @throws IOException
+	 * 		When the CSV could not be read or has malformed rows, or the output could not be written.
+	 */
+	public static void compile(Path csv, Path output) throws IOException {
+		List<Range> v4 = new ArrayList<>();
+		List<Range> v6 = new ArrayList<>();
+		try (InputStream in = openCsv(csv);
+			 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank())
+					continue;
+				try {
+					Range range = Range.parse(line);
+					if (range == null)
+						continue; // Header row
+					(range.v4 ? v4 : v6).add(range);
+				} catch (IllegalArgumentException ex) {
+					throw new IOException("Malformed IP location row " + lineNumber + ": " + ex.getMessage());
+				}
+			}
+		}
+		v4.sort(Comparator.naturalOrder());
+		v6.sort(Comparator.naturalOrder());
+		Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), output.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream os = Files.newOutputStream(temp);
+				 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(v4.size());
+				out.writeInt(v6.size());
+				for (Range range : v4) {
+					out.writeInt((int) range.startLow);
+					out.writeInt((int) range.endLow);
+					out.writeInt(range.latitude);
+					out.writeInt(range.longitude);
+				}
+				for (Range range : v6) {
+					out.writeLong(range.startHigh);
+					out.writeLong(range.startLow);
+					out.writeLong(range.endHigh);
+					out.writeLong(range.endLow);
+					out.writeInt(range.latitude);
+					out.writeInt(range.longitude);
+				}
+			}
+			Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static InputStream openCsv(Path path) throws IOException {
+		InputStream in = Files.newInputStream(path);
+		if (path.getFileName().toString().endsWith(".gz"))
+			return new GZIPInputStream(in, 1 << 16);
+		return in;
+	}
+
+	private static int compare(long high, long low, long otherHigh, long otherLow) {
+		int cmp = Long.compareUnsigned(high, otherHigh);
+		return cmp != 0 ? cmp : Long.compareUnsigned(low, otherLow);
+	}
+
+	private static long toUnsignedInt(byte[] bytes) {
+		return ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFFL) << 16) | ((bytes[2] & 0xFFL) << 8) | (bytes[3] & 0xFFL);
+	}
+
+	private static long toLong(byte[] bytes, int offset) {
+		long value = 0;
+		for (int i = offset; i < offset + 8; i++)
+			value = (value << 8) | (bytes[i] & 0xFFL);
+		return value;
+	}
+
+	/**
+	 * Range row of the CSV. IPv4 ranges only use the low half of the addresses.
+	 */
+	private static class Range implements Comparable<Range> {
+		private final boolean v4;
+		private final long startHigh;
+		private final long startLow;
+		private final long endHigh;
+		private final long endLow;
+		private final int latitude;
+		private final int longitude;
+
+		private Range(InetAddress start, InetAddress end, int latitude, int longitude) {
+			byte[] startBytes = start.getAddress();
+			byte[] endBytes = end.getAddress();
+			if (startBytes.length != endBytes.length)
+				throw new IllegalArgumentException("Range mixes IPv4 and IPv6 addresses");
+			this.v4 = startBytes.length == 4;
+			this.startHigh = v4 ? 0 : toLong(startBytes, 0);
+			this.startLow = v4 ? toUnsignedInt(startBytes) : toLong(startBytes, 8);
+			this.endHigh = v4 ? 0 : toLong(endBytes, 0);
+			this.endLow = v4 ? toUnsignedInt(endBytes) : toLong(endBytes, 8);
+			this.latitude = latitude;
+			this.longitude = longitude;
+			if (compare(startHigh, startLow, endHigh, endLow) > 0)
+				throw new IllegalArgumentException("Range ends before it starts");
+		}
+
+		@Nullable
+		private static Range parse(String line) {
+			List<String> fields = splitCsv(line);
+			if (fields.size() < 4)
+				throw new IllegalArgumentException("Expected at least 4 columns, found " + fields.size());
+			// Parsed as literals, so that no row can trigger a host name lookup
+			InetAddress start = InetAddresses.parseLiteral(fields.get(0));
+			if (start == null) {
+				if (fields.get(0).equalsIgnoreCase("ip_start"))
+					return null;
+				throw new IllegalArgumentException("Not an IP address: " + fields.get(0));
+			}
+			InetAddress end = InetAddresses.parseLiteral(fields.get(1));
+			if (end == null)
+				throw new IllegalArgumentException("Not an IP address: " + fields.get(1));
+			int latitude = toFixedPoint(Double.parseDouble(fields.get(fields.size() - 2)), 90);
+			int longitude = toFixedPoint(Double.parseDouble(fields.get(fields.size() - 1)), 180);
+			return new Range(start, end, latitude, longitude);
+		}
+
+		private static int toFixedPoint(double coordinate, double bound) {
+			if (!(coordinate >= -bound && coordinate <= bound))
+				throw new IllegalArgumentException("Coordinate out of range: " + coordinate);
+			return (int) Math.round(coordinate * COORDINATE_SCALE);
+		}
+
+		private static List<String> splitCsv(String line) {
+			List<String> fields = new ArrayList<>(8);
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						field.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(field.toString().trim());
+					field.setLength(0);
+				} else {
+					field.append(c);
+				}
+			}
+			fields.add(field.toString().trim());
+			return fields;
+		}
+
+		@Override
+		public int compareTo(Range other) {
+			return compare(startHigh, startLow, other.startHigh, other.startLow);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a channel, through a single buffer reused for every line.
+ * Lines end with {@code \n} or {@code \r\n}. The buffer grows when a line does not fit into it.
+ */
+public class LineReader implements Closeable {
+	private final ReadableByteChannel channel;
+	private ByteBuffer buffer;
+	private boolean endOfInput;
+
+	/**
+	 * @param channel
+	 * 		Channel to read from.
+	 * @param bufferSize
+	 * 		Initial size of the buffer.
+	 */
+	public LineReader(ReadableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize).flip();
+	}
+
+	/**
+	 * @return Next line, without its line terminator, or {@code null} at the end of the input.
+	 *
+	 * @throws IOException
+	 * 		When the channel could not be read.
+	 */
+	@Nullable
+	public String readLine() throws IOException {
+		int scanned = 0;
+		while (true) {
+			int start = buffer.position();
+			for (int i = start + scanned; i < buffer.limit(); i++) {
+				if (buffer.get(i) == '\n') {
+					buffer.position(i + 1);
+					return decode(start, i);
+				}
+			}
+			scanned = buffer.remaining();
+			if (endOfInput) {
+				if (scanned == 0)
+					return null;
+				buffer.position(buffer.limit());
+				return decode(start, buffer.limit());
+			}
+			fill();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void fill() throws IOException {
+		buffer.compact();
+		if (!buffer.hasRemaining()) {
+			// The pending line takes up the whole buffer
+			ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+		if (channel.read(buffer) < 0)
+			endOfInput = true;
+		buffer.flip();
+	}
+
+	private String decode(int start, int end) {
+		if (end > start && buffer.get(end - 1) == '\r')
+			end--;
+		return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+	}
+}
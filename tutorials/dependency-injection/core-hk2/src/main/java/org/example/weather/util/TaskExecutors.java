@@ -0,0 +1,33 @@
+package org.example.weather.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Util for creating executors of blocking tasks.
+ */
+public class TaskExecutors {
+	/**
+	 * @param threadName
+	 * 		Name prefix of pooled threads.
+	 * @param maxThreads
+	 * 		Maximum number of pooled threads.
+	 *
+	 * @return Executor running each task on a new virtual thread where the runtime has them,
+	 * otherwise on a bounded pool of daemon threads.
+	 */
+	public static ExecutorService newExecutor(String threadName, int maxThreads) {
+		try {
+			// Looked up reflectively, as virtual threads are not part of the Java release this is compiled against
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newFixedThreadPool(maxThreads, task -> {
+				Thread thread = new Thread(task, threadName + "-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
@@ -3,6 +3,8 @@
 @Module
 module org.example.weather {
 	requires io.inverno.core;
+	requires java.net.http;
+	requires jdk.httpserver;
 	requires jsr305;
 	requires minimal.json;
 }
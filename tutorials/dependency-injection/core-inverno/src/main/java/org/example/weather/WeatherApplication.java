@@ -1,46 +1,282 @@
 package org.example.weather;
 
 import io.inverno.core.annotation.Bean;
+import io.inverno.core.annotation.Lazy;
 import org.example.weather.commands.ICommand;
 import org.example.weather.interfaces.ICommandManager;
+import org.example.weather.util.CommandTokenizer;
+import org.example.weather.util.TaskExecutors;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * Dummy command line application to tell you the weather.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.warmup} - When {@code true}, commands start their lookups in the background on startup,
+ *     so they are already cached or in flight once the first command is entered.</li>
+ *     <li>{@code weather.mode} - Either {@code repl}, running each command before reading the next,
+ *     {@code concurrent}, running commands in the background while reading on,
+ *     {@code batch}, running a stream of commands in parallel with {@link WeatherBatch},
+ *     {@code server}, serving the commands as a JSON API with {@link WeatherServer},
+ *     {@code daemon}, serving commands forwarded by {@link WeatherClient} with {@link WeatherDaemon},
+ *     or {@code binary}, serving weather lookups in the protocol of {@link WeatherBinaryServer}.</li>
+ *     <li>{@code weather.concurrent.threads} - Maximum number of commands running at once in {@code concurrent},
+ *     {@code batch} and {@code daemon} mode, on runtimes without virtual threads.</li>
+ * </ul>
  */
 @Bean
 public class WeatherApplication implements Runnable {
-	private static final String[] EMPTY_ARGS = new String[0];
+	private static final boolean WARM_UP = Boolean.getBoolean("weather.warmup");
+	private static final String MODE = System.getProperty("weather.mode", "repl");
+	static final int CONCURRENT_THREADS = Integer.getInteger("weather.concurrent.threads", 16);
 	private static final Scanner scanner = new Scanner(System.in);
+	// Output of the command running on the current thread, when commands run concurrently
+	private static final ThreadLocal<CommandOutput> commandOutput = new ThreadLocal<>();
+	// Idle tokenizers, shared by lines on any thread, as virtual threads would each start with a new one.
+	// Bounded, so that a burst of concurrent lines does not keep all of its tokenizers around.
+	private static final BlockingQueue<CommandTokenizer> tokenizers = new ArrayBlockingQueue<>(CONCURRENT_THREADS);
 	private final ICommandManager commandManager;
+	// Other modes are only created when run, along with the lookups they depend on
+	private final Supplier<WeatherServer> server;
+	private final Supplier<WeatherBinaryServer> binaryServer;
+	private final Supplier<WeatherBatch> batch;
+	private final Supplier<WeatherDaemon> daemon;
 
-	public WeatherApplication(ICommandManager commandManager) {
+	public WeatherApplication(ICommandManager commandManager, @Lazy Supplier<WeatherServer> server,
+							  @Lazy Supplier<WeatherBinaryServer> binaryServer, @Lazy Supplier<WeatherBatch> batch,
+							  @Lazy Supplier<WeatherDaemon> daemon) {
 		this.commandManager = commandManager;
+		this.server = server;
+		this.binaryServer = binaryServer;
+		this.batch = batch;
+		this.daemon = daemon;
+	}
+
+	/**
+	 * Starts the lookups of all commands in the background, without waiting on them.
+	 * Lookups shared between commands, such as the current location, are only started once.
+	 */
+	public void warmUp() {
+		for (ICommand command : commandManager.commands())
+			command.warmUp();
+	}
+
+	/**
+	 * @return Stream for commands to print their output to.
+	 */
+	public PrintStream out() {
+		CommandOutput output = commandOutput.get();
+		return output == null ? System.out : output.out;
+	}
+
+	/**
+	 * @return Stream for commands to print their errors to.
+	 */
+	public PrintStream err() {
+		CommandOutput output = commandOutput.get();
+		return output == null ? System.err : output.err;
 	}
 
 	@Override
 	public void run() {
-		while (scanner.hasNext()) {
-			// Parse input
-			String line = scanner.nextLine();
-			String[] split = line.split("\\s+");
-			String commandName = split[0];
-			String[] commandArgs = split.length == 1 ?
-					EMPTY_ARGS :
-					Arrays.copyOfRange(split, 1, split.length);
-			// Get command and execute
-			ICommand command = commandManager.get(commandName.toLowerCase());
-			if (command == null) {
-				System.err.println("Unknown command '" + commandName + "'");
-				continue;
-			}
-			try {
-				command.handleCommand(this, commandArgs);
-			} catch (IllegalArgumentException ex) {
-				System.err.println(ex.getMessage());
+		if (WARM_UP)
+			warmUp();
+		switch (MODE) {
+			case "repl":
+				while (scanner.hasNext())
+					execute(scanner.nextLine());
+				break;
+			case "concurrent":
+				runConcurrent();
+				break;
+			case "batch":
+				batch.get().run();
+				break;
+			case "server":
+				server.get().run();
+				break;
+			case "daemon":
+				daemon.get().run();
+				break;
+			case "binary":
+				binaryServer.get().run();
+				break;
+			default:
+				throw new IllegalStateException("Unknown mode '" + MODE + "'");
+		}
+	}
+
+	/**
+	 * Reads commands while earlier ones are still running. The output of each command is held back until it completes,
+	 * then printed in the order the commands were entered.
+	 */
+	private void runConcurrent() {
+		ExecutorService executor = TaskExecutors.newExecutor("weather-command", CONCURRENT_THREADS);
+		try {
+			CompletableFuture<Void> printed = CompletableFuture.completedFuture(null);
+			while (scanner.hasNext()) {
+				String line = scanner.nextLine();
+				CompletableFuture<BufferedOutput> output = CompletableFuture.supplyAsync(() -> capture(line), executor);
+				// Each output is printed once it is complete, and the outputs of the commands before it are printed
+				printed = printed.thenCombine(output, (ignored, completed) -> {
+					completed.print();
+					return null;
+				});
 			}
+			printed.join();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Runs a command line, holding its output back until it completes.
+	 *
+	 * @param line
+	 * 		Command name, followed by its arguments.
+	 *
+	 * @return Output of the command.
+	 */
+	BufferedOutput capture(String line) {
+		BufferedOutput output = new BufferedOutput();
+		run(output, line, () -> execute(line));
+		return output;
+	}
+
+	/**
+	 * @param args
+	 * 		Command name, followed by its arguments.
+	 * @param out
+	 * 		Stream for the command to print its output to.
+	 * @param err
+	 * 		Stream for the command to print its errors to.
+	 *
+	 * @return {@code true} when the command ran,
+	 * {@code false} when the command is unknown, rejected its arguments or failed.
+	 */
+	boolean execute(String[] args, PrintStream out, PrintStream err) {
+		return run(new CommandOutput(out, err), String.join(" ", args),
+				() -> execute(args[0], Arrays.copyOfRange(args, 1, args.length)));
+	}
+
+	private boolean run(CommandOutput output, String line, BooleanSupplier execution) {
+		commandOutput.set(output);
+		try {
+			return execution.getAsBoolean();
+		} catch (RuntimeException ex) {
+			output.err.println("Command '" + line + "' failed: " + ex);
+			return false;
+		} finally {
+			commandOutput.remove();
+		}
+	}
+
+	/**
+	 * @param line
+	 * 		Command name, followed by its arguments.
+	 *
+	 * @return {@code true} when the command ran or the line is blank,
+	 * {@code false} when the command is unknown or rejected its arguments.
+	 */
+	private boolean execute(String line) {
+		// Tokens are views into a buffer reused across lines, the name is never copied
+		CommandTokenizer tokens = tokenizers.poll();
+		if (tokens == null)
+			tokens = new CommandTokenizer();
+		try {
+			if (tokens.tokenize(line) == 0)
+				return true;
+			return execute(tokens.name(), tokens.args());
+		} finally {
+			tokenizers.offer(tokens);
+		}
+	}
+
+	private boolean execute(CharSequence commandName, String[] commandArgs) {
+		// Get command and execute
+		ICommand command = commandManager.get(commandName);
+		if (command == null) {
+			err().println("Unknown command '" + commandName + "'");
+			return false;
+		}
+		try {
+			command.handleCommand(this, commandArgs);
+			return true;
+		} catch (IllegalArgumentException ex) {
+			err().println(ex.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Output streams of a single command.
+	 */
+	private static class CommandOutput {
+		private final PrintStream out;
+		private final PrintStream err;
+
+		private CommandOutput(PrintStream out, PrintStream err) {
+			this.out = out;
+			this.err = err;
+		}
+	}
+
+	/**
+	 * Output of a single command, held until it can be printed in order.
+	 */
+	static final class BufferedOutput extends CommandOutput {
+		private final ByteArrayOutputStream outBytes;
+		private final ByteArrayOutputStream errBytes;
+
+		private BufferedOutput() {
+			this(new ByteArrayOutputStream(), new ByteArrayOutputStream());
+		}
+
+		private BufferedOutput(ByteArrayOutputStream outBytes, ByteArrayOutputStream errBytes) {
+			super(new PrintStream(outBytes, true, Charset.defaultCharset()),
+					new PrintStream(errBytes, true, Charset.defaultCharset()));
+			this.outBytes = outBytes;
+			this.errBytes = errBytes;
+		}
+
+		private void print() {
+			System.out.write(outBytes.toByteArray(), 0, outBytes.size());
+			System.out.flush();
+			System.err.write(errBytes.toByteArray(), 0, errBytes.size());
+			System.err.flush();
+		}
+
+		/**
+		 * Prints the output, each line prefixed by the tag.
+		 *
+		 * @param tag
+		 * 		Prefix of every line.
+		 */
+		void printTagged(String tag) {
+			printTagged(tag, outBytes, System.out);
+			printTagged(tag, errBytes, System.err);
+		}
+
+		private static void printTagged(String tag, ByteArrayOutputStream bytes, PrintStream target) {
+			if (bytes.size() == 0)
+				return;
+			StringBuilder sb = new StringBuilder(bytes.size() + 16);
+			for (String line : bytes.toString(Charset.defaultCharset()).split("\\R"))
+				sb.append(tag).append(line).append(System.lineSeparator());
+			target.print(sb);
+			target.flush();
 		}
 	}
 }
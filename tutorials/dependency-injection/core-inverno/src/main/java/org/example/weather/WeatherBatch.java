@@ -0,0 +1,92 @@
+package org.example.weather;
+
+import io.inverno.core.annotation.Bean;
+import io.inverno.core.annotation.Lazy;
+import org.example.weather.util.Futures;
+import org.example.weather.util.LineReader;
+import org.example.weather.util.TaskExecutors;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs every line of a stream of commands in parallel, up to a limit of commands in flight.
+ * The output of each command is printed once it completes, with each output line tagged by the input line number.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.batch.input} - File to read commands from, instead of standard input.</li>
+ *     <li>{@code weather.batch.maxInFlight} - Maximum number of commands read but not yet complete.
+ *     Reading pauses while the limit is reached.</li>
+ * </ul>
+ */
+@Bean
+public class WeatherBatch implements Runnable {
+	private static final String INPUT = System.getProperty("weather.batch.input");
+	private static final int MAX_IN_FLIGHT = Integer.getInteger("weather.batch.maxInFlight", 64);
+	private static final int BUFFER_SIZE = 64 * 1024;
+	// Provided, as the application runs this batch in its mode
+	private final Supplier<WeatherApplication> application;
+
+	public WeatherBatch(@Lazy Supplier<WeatherApplication> application) {
+		this.application = application;
+	}
+
+	@Override
+	public void run() {
+		WeatherApplication application = this.application.get();
+		ExecutorService executor = TaskExecutors.newExecutor("weather-command", WeatherApplication.CONCURRENT_THREADS);
+		Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+		Object printLock = new Object();
+		try (LineReader reader = new LineReader(input(), BUFFER_SIZE)) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank())
+					continue;
+				// Backpressure, reading stops while the limit of commands is still running
+				inFlight.acquire();
+				String command = line.strip();
+				int tag = lineNumber;
+				CompletableFuture.supplyAsync(() -> application.capture(command), executor)
+						.whenComplete((output, failure) -> {
+							try {
+								synchronized (printLock) {
+									if (failure == null) {
+										output.printTagged(tag + "\t");
+									} else {
+										// Only errors escape the capture, which reports exceptions in the output
+										System.err.println(tag + "\tCommand '" + command + "' failed: "
+												+ Futures.unwrap(failure));
+									}
+								}
+							} finally {
+								inFlight.release();
+							}
+						});
+			}
+			inFlight.acquire(MAX_IN_FLIGHT);
+		} catch (IOException ex) {
+			System.err.println("Failed to read batch input: " + ex.getMessage());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static ReadableByteChannel input() throws IOException {
+		return INPUT == null ?
+				Channels.newChannel(System.in) :
+				FileChannel.open(Paths.get(INPUT), StandardOpenOption.READ);
+	}
+}
@@ -0,0 +1,82 @@
+package org.example.weather;
+
+import io.inverno.core.annotation.Bean;
+import io.inverno.core.annotation.Lazy;
+import org.example.weather.util.FrameChannel;
+import org.example.weather.util.LocalSockets;
+import org.example.weather.util.TaskExecutors;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Resident server of commands forwarded by {@link WeatherClient} over a local socket, one per connection.
+ * Output is streamed back to the client while the command runs, followed by its exit code.
+ * <p>
+ * Listens on the socket at {@code weather.daemon.socket}, see {@link WeatherClient}.
+ */
+@Bean
+public class WeatherDaemon implements Runnable {
+	// Provided, as the application runs this daemon in its mode
+	private final Supplier<WeatherApplication> application;
+
+	public WeatherDaemon(@Lazy Supplier<WeatherApplication> application) {
+		this.application = application;
+	}
+
+	@Override
+	public void run() {
+		WeatherApplication application = this.application.get();
+		ExecutorService executor = TaskExecutors.newExecutor("weather-daemon", WeatherApplication.CONCURRENT_THREADS);
+		try (ServerSocketChannel server = LocalSockets.bind(WeatherClient.SOCKET_PATH)) {
+			byte[] token = LocalSockets.token(WeatherClient.SOCKET_PATH);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					Files.deleteIfExists(WeatherClient.SOCKET_PATH);
+				} catch (IOException ignored) {
+					// Replaced by the next daemon to start
+				}
+			}, "weather-daemon-shutdown"));
+			System.out.println("Listening on " + WeatherClient.SOCKET_PATH);
+			while (true) {
+				SocketChannel connection = server.accept();
+				executor.execute(() -> serve(application, token, connection));
+			}
+		} catch (IOException ex) {
+			System.err.println("Daemon stopped: " + ex.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void serve(WeatherApplication application, byte[] token, SocketChannel connection) {
+		try (FrameChannel channel = new FrameChannel(connection)) {
+			// A loopback socket is open to every local user, only clients able to read the token are served
+			FrameChannel.Frame auth = channel.read();
+			if (auth == null || auth.getType() != WeatherClient.FRAME_TOKEN
+					|| !MessageDigest.isEqual(token, auth.getPayload()))
+				return;
+			FrameChannel.Frame request = channel.read();
+			if (request == null || request.getType() != WeatherClient.FRAME_ARGS)
+				return;
+			String[] args = new String(request.getPayload(), StandardCharsets.UTF_8).split("\0");
+			PrintStream out = new PrintStream(channel.stream(WeatherClient.FRAME_OUT), true, StandardCharsets.UTF_8);
+			PrintStream err = new PrintStream(channel.stream(WeatherClient.FRAME_ERR), true, StandardCharsets.UTF_8);
+			boolean ran = application.execute(args, out, err);
+			byte[] exitCode = ByteBuffer.allocate(4).putInt(ran ? 0 : 1).array();
+			out.flush();
+			err.flush();
+			channel.write(WeatherClient.FRAME_EXIT, exitCode, 0, exitCode.length);
+		} catch (IOException ex) {
+			// Client went away, nothing left to tell it
+		}
+	}
+}
@@ -20,9 +20,14 @@ public WhereAmI(ILocationProvider locationProvider) {
 	public void handleCommand(WeatherApplication context, String[] args) {
 		try {
 			Location location = locationProvider.currentLocation();
-			System.out.println(location);
+			context.out().println(location);
 		} catch (LocationLookupException ex) {
-			System.err.println("Failed to determine current location");
+			context.err().println("Failed to determine current location");
 		}
 	}
+
+	@Override
+	public void warmUp() {
+		locationProvider.currentLocationAsync();
+	}
 }
@@ -0,0 +1,65 @@
+package org.example.weather.data;
+
+import java.util.Objects;
+
+/**
+ * Forecast grid cell of a weather forecast office, which all locations within the cell share forecasts with.
+ */
+public class GridPoint {
+	private final String office;
+	private final int gridX;
+	private final int gridY;
+	private final String forecastHourlyUrl;
+
+	public GridPoint(String office, int gridX, int gridY, String forecastHourlyUrl) {
+		this.office = office;
+		this.gridX = gridX;
+		this.gridY = gridY;
+		this.forecastHourlyUrl = forecastHourlyUrl;
+	}
+
+	/**
+	 * @return Forecast office identifier.
+	 */
+	public String getOffice() {
+		return office;
+	}
+
+	public int getGridX() {
+		return gridX;
+	}
+
+	public int getGridY() {
+		return gridY;
+	}
+
+	/**
+	 * @return URL of the hourly forecast for this grid cell.
+	 */
+	public String getForecastHourlyUrl() {
+		return forecastHourlyUrl;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		GridPoint gridPoint = (GridPoint) o;
+		if (gridX != gridPoint.gridX) return false;
+		if (gridY != gridPoint.gridY) return false;
+		return Objects.equals(office, gridPoint.office);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = office != null ? office.hashCode() : 0;
+		result = 31 * result + gridX;
+		result = 31 * result + gridY;
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return office + "/" + gridX + "," + gridY;
+	}
+}
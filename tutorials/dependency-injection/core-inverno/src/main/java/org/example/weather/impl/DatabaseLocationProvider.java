@@ -0,0 +1,96 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Location;
+import org.example.weather.data.LocationLookupException;
+import org.example.weather.interfaces.INetworkAccessor;
+import org.example.weather.util.Futures;
+import org.example.weather.util.IpLocationDatabase;
+import org.example.weather.util.LazyValue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation to lookup location based on IP, via an offline IP location database instead of the lookup API.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.ipdb} - Path to the IP location database.
+ *     Either a compiled database file, or a CSV which is compiled next to itself on first use,
+ *     and again whenever it is replaced by a newer one. See {@link IpLocationDatabase} for the format.
+ *     Not a bean in this variant, as wiring is fixed at compile time the lookup API is always the one injected.
+ *     Construct it directly to use the database.</li>
+ * </ul>
+ */
+public class DatabaseLocationProvider extends AbstractLocationProvider {
+	private static final String DATABASE_PATH = System.getProperty("weather.ipdb");
+	private static final String DATABASE_SUFFIX = ".ipdb";
+	private static final long DATABASE_TTL_MINUTES = TimeUnit.DAYS.toMinutes(1);
+	private static final long DATABASE_REFRESH_MINUTES = 10;
+	// Opened on first use, and again now and then in the background so that a replaced database is picked up
+	private final LazyValue<IpLocationDatabase> database = new LazyValue<>(this::openDatabase,
+			DATABASE_TTL_MINUTES, DATABASE_REFRESH_MINUTES, TimeUnit.MINUTES);
+	private final Path path;
+
+	public DatabaseLocationProvider(INetworkAccessor accessor) {
+		this(accessor, DATABASE_PATH == null ? null : Paths.get(DATABASE_PATH));
+	}
+
+	/**
+	 * @param accessor
+	 * 		Accessor to lookup the external address with.
+	 * @param path
+	 * 		Path to a compiled database file, or to a CSV to compile. May be {@code null} if none is configured,
+	 * 		in which case every lookup fails.
+	 */
+	DatabaseLocationProvider(INetworkAccessor accessor, @Nullable Path path) {
+		super(accessor);
+		this.path = path;
+	}
+
+	/**
+	 * @return {@code true} when a database is configured with {@code weather.ipdb}, so this implementation is the one
+	 * to bind for {@link org.example.weather.interfaces.ILocationProvider}.
+	 */
+	public static boolean isConfigured() {
+		return DATABASE_PATH != null;
+	}
+
+	@Override
+	public CompletableFuture<Location> forAddressAsync(@Nonnull InetAddress address) {
+		// The local database is faster to search than any cache in front of it
+		CompletableFuture<Location> lookup = database.getAsync().thenApply(Futures.unchecked(database -> {
+			Location location = database.find(address);
+			if (location == null)
+				throw new IOException("Location database '" + path + "' has no entry for: " + address.getHostAddress());
+			return location;
+		}));
+		return Futures.mapFailure(lookup, LocationLookupException.class, LocationLookupException::new);
+	}
+
+	private CompletableFuture<IpLocationDatabase> openDatabase() {
+		if (path == null)
+			return CompletableFuture.failedFuture(new IOException("No location database configured in 'weather.ipdb'"));
+		try {
+			Path file = path;
+			if (!file.getFileName().toString().endsWith(DATABASE_SUFFIX)) {
+				// Compile the CSV once, and again whenever it is replaced by a newer one
+				Path compiled = file.resolveSibling(file.getFileName() + DATABASE_SUFFIX);
+				if (Files.notExists(compiled)
+						|| Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(file)) < 0)
+					IpLocationDatabase.compile(file, compiled);
+				file = compiled;
+			}
+			return CompletableFuture.completedFuture(IpLocationDatabase.open(file));
+		} catch (IOException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+}
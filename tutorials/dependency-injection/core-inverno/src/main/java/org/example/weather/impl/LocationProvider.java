@@ -3,57 +3,61 @@
 import io.inverno.core.annotation.Bean;
 import org.example.weather.data.Location;
 import org.example.weather.data.LocationLookupException;
-import org.example.weather.interfaces.ILocationProvider;
+import org.example.weather.interfaces.IHttpTransport;
 import org.example.weather.interfaces.INetworkAccessor;
-import org.example.weather.util.HTTP;
+import org.example.weather.util.Futures;
+import org.example.weather.util.PrefixCache;
+import org.example.weather.util.SingleFlight;
 
-import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Implementation to lookup location based on IP.
+ * Implementation to lookup location based on IP, via the location lookup API.
+ * Singleton scoped, so every consumer shares the resolved location and the per-prefix cache.
+ * <p>
+ * See {@link DatabaseLocationProvider} for lookups from an offline database instead.
  */
 @Bean
-public class LocationProvider implements ILocationProvider {
+public class LocationProvider extends AbstractLocationProvider {
 	private static final String API_URL = "https://db-ip.com/";
-	private static final Pattern COORDINATE_PATTERN = Pattern.compile(
-			"<tr>\\s*<th>\\s*Coordinates\\s*</th>\\s*<td>\\s*" +
-					"([\\d.-]+)" + // Group 1: latitude number
-					"\\s*,\\s*" +
-					"([\\d.-]+)" + // Group 2: longitude number
-					"\\s*</td>\\s*</tr>");
-	private final INetworkAccessor accessor;
-	private Location currentLocation;
+	private static final long API_MAX_SCAN_BYTES = 1024 * 1024;
+	private static final int LOCATION_CACHE_MAX_PREFIXES = 16384;
+	private static final long LOCATION_CACHE_TTL_HOURS = 24;
+	// Cache location per network prefix, as addresses in the same prefix are almost always at the same location
+	private final PrefixCache<Location> locationCache = new PrefixCache<>(LOCATION_CACHE_MAX_PREFIXES);
+	// Concurrent lookups missing the cache share a single upstream request per prefix
+	private final SingleFlight<String, Location> locationFlight = new SingleFlight<>();
+	private final IHttpTransport transport;
 
-	public LocationProvider(INetworkAccessor accessor) {
-		this.accessor = accessor;
+	public LocationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		super(accessor);
+		this.transport = transport;
 	}
 
 	@Override
-	public Location currentLocation() throws LocationLookupException {
-		if (currentLocation == null)
-			currentLocation = requestLocation();
-		return currentLocation;
+	public CompletableFuture<Location> forAddressAsync(@Nonnull InetAddress address) {
+		Location cachedLocation = locationCache.get(address);
+		if (cachedLocation != null)
+			return CompletableFuture.completedFuture(cachedLocation);
+		CompletableFuture<Location> lookup =
+				locationFlight.executeAsync(PrefixCache.prefixOf(address), () -> requestLocation(address));
+		return Futures.mapFailure(lookup, LocationLookupException.class, LocationLookupException::new);
 	}
 
-	private Location requestLocation() throws LocationLookupException {
-		try {
-			// Get IP from accessor
-			String ip = accessor.externalAddress().getHostAddress();
-			// Fetch content from API
-			String content = HTTP.readString(API_URL + ip,
-					status -> "Location lookup API '" + API_URL + "' yielded status code: " + status);
-			Matcher matcher = COORDINATE_PATTERN.matcher(content);
-			if (matcher.find()) {
-				double latitude = Double.parseDouble(matcher.group(1));
-				double longitude = Double.parseDouble(matcher.group(2));
-				return new Location(latitude, longitude);
-			} else {
-				throw new IOException("Location lookup API output format changed! Content could not be parsed.");
-			}
-		} catch (IOException ex) {
-			throw new LocationLookupException(ex);
-		}
+	private CompletableFuture<Location> requestLocation(InetAddress address) {
+		// Check again, a flight that completed since the initial check may have populated the entry
+		Location cachedLocation = locationCache.get(address);
+		if (cachedLocation != null)
+			return CompletableFuture.completedFuture(cachedLocation);
+		// Scan the content from API up to the coordinates
+		return transport.scanAsync(API_URL + address.getHostAddress(), new CoordinateScanner(API_MAX_SCAN_BYTES),
+						status -> "Location lookup API '" + API_URL + "' yielded status code: " + status)
+				.thenApply(location -> {
+					locationCache.put(address, location, LOCATION_CACHE_TTL_HOURS, TimeUnit.HOURS);
+					return location;
+				});
 	}
 }
@@ -2,11 +2,15 @@
 
 import org.example.weather.commands.ICommand;
 
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Responsible for substantiating command implementations.
  */
 public interface ICommandLoader {
-	Set<ICommand> load();
+	/**
+	 * @return Commands by their name. Each command, and what it depends on, is only created once it is first provided.
+	 */
+	Map<String, Supplier<ICommand>> load();
 }
@@ -9,15 +9,21 @@
  */
 public interface ICommandManager {
 	/**
-	 * @return All recognized commands.
+	 * @return Names of all recognized commands, sorted. The set is immutable, and the same instance on every call.
+	 */
+	Set<String> names();
+
+	/**
+	 * @return All recognized commands, creating those not yet used.
+	 * The set is immutable, and the same instance on every call.
 	 */
 	Set<ICommand> commands();
 
 	/**
 	 * @param name
-	 * 		Command name.
+	 * 		Command name, in any case.
 	 *
-	 * @return Command implementation.
+	 * @return Command implementation, or {@code null} if there is no command of the name.
 	 */
-	ICommand get(String name);
+	ICommand get(CharSequence name);
 }
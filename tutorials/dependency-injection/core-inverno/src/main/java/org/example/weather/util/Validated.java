@@ -0,0 +1,31 @@
+package org.example.weather.util;
+
+/**
+ * Value derived from an HTTP response, paired with the validators of that response.
+ *
+ * @param <T>
+ * 		Value type.
+ */
+public class Validated<T> {
+	private final T value;
+	private final Validators validators;
+
+	public Validated(T value, Validators validators) {
+		this.value = value;
+		this.validators = validators;
+	}
+
+	/**
+	 * @return Value derived from the response body.
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return Validators to revalidate the value with.
+	 */
+	public Validators getValidators() {
+		return validators;
+	}
+}
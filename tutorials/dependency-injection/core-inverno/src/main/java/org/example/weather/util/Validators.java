@@ -0,0 +1,99 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.net.http.HttpHeaders;
+import java.util.Objects;
+
+/**
+ * HTTP validators of a response, used to revalidate it with a conditional request.
+ */
+public class Validators {
+	/**
+	 * No validators, requests made with these are unconditional.
+	 */
+	public static final Validators NONE = new Validators(null, null);
+	private final String etag;
+	private final String lastModified;
+
+	public Validators(@Nullable String etag, @Nullable String lastModified) {
+		this.etag = etag;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * @param headers
+	 * 		Response headers.
+	 *
+	 * @return Validators declared by the response.
+	 */
+	public static Validators of(HttpHeaders headers) {
+		String etag = headers.firstValue("ETag").orElse(null);
+		String lastModified = headers.firstValue("Last-Modified").orElse(null);
+		if (etag == null && lastModified == null)
+			return NONE;
+		return new Validators(etag, lastModified);
+	}
+
+	/**
+	 * A {@code 304 Not Modified} response may carry updated validators, which replace the stored ones.
+	 *
+	 * @param headers
+	 * 		Headers of the response that revalidated these validators.
+	 *
+	 * @return Validators declared by the response where present, these ones otherwise.
+	 */
+	public Validators updatedBy(HttpHeaders headers) {
+		String updatedEtag = headers.firstValue("ETag").orElse(etag);
+		String updatedLastModified = headers.firstValue("Last-Modified").orElse(lastModified);
+		if (Objects.equals(updatedEtag, etag) && Objects.equals(updatedLastModified, lastModified))
+			return this;
+		return new Validators(updatedEtag, updatedLastModified);
+	}
+
+	/**
+	 * @return Entity tag, sent back as {@code If-None-Match}.
+	 */
+	@Nullable
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * @return Last modification date, sent back as {@code If-Modified-Since}.
+	 */
+	@Nullable
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return {@code true} when there is nothing to revalidate with.
+	 */
+	public boolean isEmpty() {
+		return etag == null && lastModified == null;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		Validators validators = (Validators) o;
+		if (!Objects.equals(etag, validators.etag)) return false;
+		return Objects.equals(lastModified, validators.lastModified);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = etag != null ? etag.hashCode() : 0;
+		result = 31 * result + (lastModified != null ? lastModified.hashCode() : 0);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "Validators{" +
+				"etag=" + etag +
+				", lastModified=" + lastModified +
+				'}';
+	}
+}
@@ -0,0 +1,72 @@
+package org.example.weather;
+
+import org.example.weather.util.FrameChannel;
+import org.example.weather.util.LocalSockets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Thin client forwarding its arguments as a single command to a resident {@link WeatherApplication},
+ * started with {@code -Dweather.mode=daemon}. The command output is streamed back as it is printed,
+ * and the client exits with the exit code of the command.
+ * <p>
+ * The client only opens a socket, so it starts no container and shares the caches of the daemon.
+ * <p>
+ * Protocol: the client sends one {@link #FRAME_TOKEN} frame with the token of the socket, see
+ * {@link LocalSockets#token(Path)}, then one {@link #FRAME_ARGS} frame with the command name and arguments separated by
+ * {@code NUL} characters. The daemon answers with any number of {@link #FRAME_OUT} and {@link #FRAME_ERR} frames,
+ * then a {@link #FRAME_EXIT} frame holding the exit code as a four byte integer.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.daemon.socket} - Path of the daemon socket. Defaults to {@code .weather.sock}
+ *     in the user home directory.</li>
+ * </ul>
+ */
+public class WeatherClient {
+	static final Path SOCKET_PATH = Paths.get(System.getProperty("weather.daemon.socket",
+			Paths.get(System.getProperty("user.home"), ".weather.sock").toString()));
+	static final byte FRAME_ARGS = 1;
+	static final byte FRAME_OUT = 2;
+	static final byte FRAME_ERR = 3;
+	static final byte FRAME_EXIT = 4;
+	static final byte FRAME_TOKEN = 5;
+	private static final int EXIT_UNREACHABLE = 2;
+
+	public static void main(String[] args) {
+		String[] command = args.length == 0 ? new String[]{"help"} : args;
+		try (FrameChannel channel = new FrameChannel(LocalSockets.connect(SOCKET_PATH))) {
+			byte[] token = LocalSockets.token(SOCKET_PATH);
+			channel.write(FRAME_TOKEN, token, 0, token.length);
+			byte[] request = String.join("\0", command).getBytes(StandardCharsets.UTF_8);
+			channel.write(FRAME_ARGS, request, 0, request.length);
+			FrameChannel.Frame frame;
+			while ((frame = channel.read()) != null) {
+				byte[] payload = frame.getPayload();
+				switch (frame.getType()) {
+					case FRAME_OUT:
+						System.out.write(payload, 0, payload.length);
+						System.out.flush();
+						break;
+					case FRAME_ERR:
+						System.err.write(payload, 0, payload.length);
+						System.err.flush();
+						break;
+					case FRAME_EXIT:
+						System.exit(ByteBuffer.wrap(payload).getInt());
+						return;
+					default:
+						break;
+				}
+			}
+			System.err.println("Weather daemon closed the connection before the command completed");
+		} catch (IOException ex) {
+			System.err.println("Weather daemon is not reachable at '" + SOCKET_PATH + "': " + ex.getMessage());
+		}
+		System.exit(EXIT_UNREACHABLE);
+	}
+}
@@ -0,0 +1,255 @@
+package org.example.weather;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.weather.data.Location;
+import org.example.weather.data.Weather;
+import org.example.weather.interfaces.ICommandManager;
+import org.example.weather.interfaces.ILocationProvider;
+import org.example.weather.interfaces.IWeatherProvider;
+import org.example.weather.util.Futures;
+import org.example.weather.util.InetAddresses;
+import org.example.weather.util.TaskExecutors;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * HTTP server exposing the commands as a JSON API, so that one warm process serves many clients.
+ * <ul>
+ *     <li>{@code GET /} - Available commands.</li>
+ *     <li>{@code GET /where} - Current location, or the location of the address given as {@code ?ip=}.</li>
+ *     <li>{@code GET /current} - Weather at the current location.</li>
+ *     <li>{@code GET /remote?lat=&lon=} - Weather at the given location.</li>
+ * </ul>
+ * Lookups are shared with the commands, so a forecast cached by one client is served to every other.
+ * Responses are sent once the lookup completes, without holding a thread while waiting on it.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.server.host} - Address to listen on.</li>
+ *     <li>{@code weather.server.port} - Port to listen on.</li>
+ *     <li>{@code weather.server.threads} - Maximum number of threads handling requests,
+ *     on runtimes without virtual threads.</li>
+ * </ul>
+ */
+public class WeatherServer implements Runnable {
+	private static final String HOST = System.getProperty("weather.server.host", "127.0.0.1");
+	private static final int PORT = Integer.getInteger("weather.server.port", 8080);
+	private static final int THREADS = Integer.getInteger("weather.server.threads", 16);
+	private static final int STATUS_OK = 200;
+	private static final int STATUS_BAD_REQUEST = 400;
+	private static final int STATUS_NOT_FOUND = 404;
+	private static final int STATUS_BAD_METHOD = 405;
+	private static final int STATUS_BAD_GATEWAY = 502;
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	private final ICommandManager commandManager;
+	private final IWeatherProvider weatherProvider;
+	private final ILocationProvider locationProvider;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	@Inject
+	public WeatherServer(ICommandManager commandManager, IWeatherProvider weatherProvider,
+						 ILocationProvider locationProvider) {
+		this.commandManager = commandManager;
+		this.weatherProvider = weatherProvider;
+		this.locationProvider = locationProvider;
+	}
+
+	/**
+	 * Starts the server, then blocks until it is stopped.
+	 */
+	@Override
+	public void run() {
+		try {
+			InetSocketAddress address = start(new InetSocketAddress(HOST, PORT));
+			Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "weather-server-shutdown"));
+			System.out.println("Serving on http://" + address.getHostString() + ":" + address.getPort() + "/");
+			stopped.await();
+		} catch (IOException ex) {
+			System.err.println("Failed to start server: " + ex.getMessage());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			stop();
+		}
+	}
+
+	/**
+	 * @param address
+	 * 		Address to listen on. Port {@code 0} picks a free port.
+	 *
+	 * @return Address listened on.
+	 *
+	 * @throws IOException
+	 * 		When the address could not be bound.
+	 */
+	public synchronized InetSocketAddress start(InetSocketAddress address) throws IOException {
+		if (server != null)
+			throw new IllegalStateException("Server already started");
+		server = HttpServer.create(address, 0);
+		ExecutorService executor = TaskExecutors.newExecutor("weather-server", THREADS);
+		server.setExecutor(executor);
+		server.createContext("/", exchange -> handle(exchange, executor));
+		this.executor = executor;
+		server.start();
+		return server.getAddress();
+	}
+
+	/**
+	 * Stops the server, if it is running.
+	 */
+	public synchronized void stop() {
+		if (server == null)
+			return;
+		server.stop(0);
+		executor.shutdown();
+		server = null;
+		stopped.countDown();
+	}
+
+	private void handle(HttpExchange exchange, Executor executor) {
+		if (!"GET".equals(exchange.getRequestMethod())) {
+			respond(exchange, STATUS_BAD_METHOD, error("Only GET is supported"));
+			return;
+		}
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+		CompletableFuture<JsonObject> response;
+		try {
+			switch (exchange.getRequestURI().getPath()) {
+				case "/":
+					response = CompletableFuture.completedFuture(commands());
+					break;
+				case "/where":
+					response = where(query.get("ip"));
+					break;
+				case "/current":
+					response = locationProvider.currentLocationAsync()
+							.thenCompose(weatherProvider::forLocationAsync)
+							.thenApply(WeatherServer::toJson);
+					break;
+				case "/remote":
+					response = weatherProvider.forLocationAsync(parseLocation(query))
+							.thenApply(WeatherServer::toJson);
+					break;
+				default:
+					respond(exchange, STATUS_NOT_FOUND, error("Unknown endpoint '" + exchange.getRequestURI().getPath() + "'"));
+					return;
+			}
+		} catch (IllegalArgumentException ex) {
+			respond(exchange, STATUS_BAD_REQUEST, error(ex.getMessage()));
+			return;
+		}
+		// Written on the server's own threads, not on whichever thread completed the lookups, such as the HTTP client's
+		response.whenCompleteAsync((json, failure) -> {
+			if (failure == null)
+				respond(exchange, STATUS_OK, json);
+			else
+				respond(exchange, STATUS_BAD_GATEWAY, error(Futures.unwrap(failure).getMessage()));
+		}, executor);
+	}
+
+	private JsonObject commands() {
+		JsonArray names = Json.array();
+		for (String name : commandManager.names())
+			names.add(name);
+		return Json.object().add("commands", names);
+	}
+
+	private CompletableFuture<JsonObject> where(String ip) {
+		CompletableFuture<Location> location;
+		if (ip == null) {
+			location = locationProvider.currentLocationAsync();
+		} else {
+			// Only literals are accepted, so that a request can not make the server resolve host names
+			InetAddress address = InetAddresses.parseLiteral(ip);
+			if (address == null)
+				throw new IllegalArgumentException("Parameter 'ip' must be an IP address");
+			location = locationProvider.forAddressAsync(address);
+		}
+		return location.thenApply(WeatherServer::toJson);
+	}
+
+	private static Location parseLocation(Map<String, String> query) {
+		double latitude = parseCoordinate(query, "lat", 90);
+		double longitude = parseCoordinate(query, "lon", 180);
+		return new Location(latitude, longitude);
+	}
+
+	private static double parseCoordinate(Map<String, String> query, String name, int bound) {
+		String value = query.get(name);
+		if (value == null)
+			throw new IllegalArgumentException("Missing required parameter '" + name + "'");
+		double coordinate;
+		try {
+			coordinate = Double.parseDouble(value);
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Parameter '" + name + "' must be a number");
+		}
+		if (!(Math.abs(coordinate) <= bound))
+			throw new IllegalArgumentException("Parameter '" + name + "' must be within [-" + bound + ", " + bound + "]");
+		return coordinate;
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery == null)
+			return query;
+		for (String pair : rawQuery.split("&")) {
+			int split = pair.indexOf('=');
+			if (split > 0)
+				query.put(URLDecoder.decode(pair.substring(0, split), StandardCharsets.UTF_8),
+						URLDecoder.decode(pair.substring(split + 1), StandardCharsets.UTF_8));
+		}
+		return query;
+	}
+
+	private static JsonObject toJson(Location location) {
+		return Json.object()
+				.add("latitude", location.getLatitude())
+				.add("longitude", location.getLongitude());
+	}
+
+	private static JsonObject toJson(Weather weather) {
+		return Json.object()
+				.add("temperature", Json.object()
+						.add("degrees", weather.getTemperature().getDegrees())
+						.add("unit", weather.getTemperature().getDegreesMeasurement()))
+				.add("forecast", weather.getForecast())
+				.add("wind", Json.object()
+						.add("speed", weather.getWind().getSpeed())
+						.add("unit", weather.getWind().getMeasurement())
+						.add("direction", weather.getWind().getDirection()));
+	}
+
+	private static JsonObject error(String message) {
+		return Json.object().add("error", message);
+	}
+
+	private static void respond(HttpExchange exchange, int status, JsonObject json) {
+		byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+		try (OutputStream out = exchange.getResponseBody()) {
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			exchange.sendResponseHeaders(status, body.length);
+			out.write(body);
+		} catch (IOException ex) {
+			// Client went away, nothing left to tell it
+		} finally {
+			exchange.close();
+		}
+	}
+}
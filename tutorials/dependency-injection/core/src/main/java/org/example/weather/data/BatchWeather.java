@@ -0,0 +1,37 @@
+package org.example.weather.data;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Weather results of a batch lookup, split into the locations that succeeded and the ones that failed.
+ */
+public class BatchWeather {
+	private final Map<Location, Weather> weather;
+	private final Map<Location, WeatherLookupException> failures;
+
+	public BatchWeather(Map<Location, Weather> weather, Map<Location, WeatherLookupException> failures) {
+		this.weather = Collections.unmodifiableMap(weather);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	public Map<Location, Weather> getWeather() {
+		return weather;
+	}
+
+	public Map<Location, WeatherLookupException> getFailures() {
+		return failures;
+	}
+
+	public boolean isComplete() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchWeather{" +
+				"weather=" + weather +
+				", failures=" + failures +
+				'}';
+	}
+}
@@ -7,29 +7,32 @@
 import org.example.weather.interfaces.ICommandLoader;
 import org.example.weather.interfaces.ILocationProvider;
 import org.example.weather.interfaces.IWeatherProvider;
+import org.example.weather.util.Memoized;
 
 import javax.inject.Inject;
-import java.util.HashSet;
-import java.util.Set;
+import javax.inject.Provider;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Supplies new command instances.
  */
 public class CommandLoader implements ICommandLoader {
-	private final Set<ICommand> commands = new HashSet<>();
+	private final Map<String, Provider<ICommand>> commands = new HashMap<>();
 
 	@Inject
-	public CommandLoader(ILocationProvider locationProvider,
-						 IWeatherProvider weatherProvider) {
+	public CommandLoader(Provider<ILocationProvider> locationProvider,
+						 Provider<IWeatherProvider> weatherProvider) {
 		// Commands are injectable, but with basic JSR-330 there is no dynamic way to instantiate them all in one pass.
 		// So we use this loader type to request the dependencies in this constructor, then pass them to the commands.
-		commands.add(new WhereAmI(locationProvider));
-		commands.add(new CurrentWeather(weatherProvider, locationProvider));
-		commands.add(new RemoteWeather(weatherProvider));
+		// The dependencies are requested as providers, so neither they nor the commands are created until first used.
+		commands.put("where", Memoized.of(() -> new WhereAmI(locationProvider.get())));
+		commands.put("current", Memoized.of(() -> new CurrentWeather(weatherProvider.get(), locationProvider.get())));
+		commands.put("remote", Memoized.of(() -> new RemoteWeather(weatherProvider.get())));
 	}
 
 	@Override
-	public Set<ICommand> load() {
+	public Map<String, Provider<ICommand>> load() {
 		return commands;
 	}
 }
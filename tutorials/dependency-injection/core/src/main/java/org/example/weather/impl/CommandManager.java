@@ -5,44 +5,103 @@
 import org.example.weather.commands.ICommand;
 import org.example.weather.interfaces.ICommandLoader;
 import org.example.weather.interfaces.ICommandManager;
+import org.example.weather.util.Memoized;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 import java.util.*;
 
 /**
  * Handles command instances and usage.
+ * <p>
+ * Commands are fixed once loaded, so lookups go through a table built up front. The table is keyed by the lower
+ * case command names, and lookups fold the case of the name as they hash and compare it, without copying it.
+ * Commands are only created once they are first looked up.
  */
 public class CommandManager implements ICommandManager {
-	private final Map<String, ICommand> commands = new HashMap<>();
+	private final Set<String> names;
+	private final Provider<Set<ICommand>> commands;
+	private final char[][] tableNames;
+	private final Provider<ICommand>[] tableCommands;
+	private final int tableMask;
 
 	@Inject
 	public CommandManager(ICommandLoader commandLoader) {
-		Set<ICommand> loadedCommands = commandLoader.load();
-		for (ICommand command : loadedCommands) {
-			String name = command.name();
-			commands.put(name, command);
-		}
+		Map<String, Provider<ICommand>> commandsByName = new TreeMap<>(commandLoader.load());
+		List<String> loadedNames = new ArrayList<>(commandsByName.keySet());
 		// Internal command to list other commands
-		commands.put("help", new AbstractCommand("help") {
+		ICommand help = new AbstractCommand("help") {
 			@Override
 			public void handleCommand(WeatherApplication context, String[] args) {
-				List<ICommand> sortedCommands = new ArrayList<>(loadedCommands);
-				sortedCommands.sort(Comparator.comparing(ICommand::name));
-				System.out.println("Available commands:");
-				for (ICommand command : sortedCommands) {
-					System.out.println(" - " + command.name());
+				context.out().println("Available commands:");
+				for (String name : loadedNames) {
+					context.out().println(" - " + name);
 				}
 			}
+		};
+		commandsByName.put("help", () -> help);
+		names = Collections.unmodifiableSet(new LinkedHashSet<>(commandsByName.keySet()));
+		commands = Memoized.of(() -> {
+			Set<ICommand> instances = new LinkedHashSet<>();
+			for (Provider<ICommand> command : commandsByName.values())
+				instances.add(command.get());
+			return Collections.unmodifiableSet(instances);
 		});
+		// Open addressing at a load factor of at most one half, so probe sequences stay short
+		int capacity = Integer.highestOneBit(Math.max(1, commandsByName.size()) * 4 - 1);
+		tableNames = new char[capacity][];
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Provider<ICommand>[] slots = new Provider[capacity];
+		tableCommands = slots;
+		tableMask = capacity - 1;
+		for (Map.Entry<String, Provider<ICommand>> entry : commandsByName.entrySet()) {
+			char[] name = entry.getKey().toCharArray();
+			for (int i = 0; i < name.length; i++)
+				name[i] = Character.toLowerCase(name[i]);
+			int slot = hash(entry.getKey()) & tableMask;
+			while (tableNames[slot] != null && !matches(tableNames[slot], entry.getKey()))
+				slot = (slot + 1) & tableMask;
+			tableNames[slot] = name;
+			tableCommands[slot] = entry.getValue();
+		}
+	}
+
+	@Override
+	public Set<String> names() {
+		return names;
 	}
 
 	@Override
 	public Set<ICommand> commands() {
-		return new HashSet<>(commands.values());
+		return commands.get();
 	}
 
 	@Override
-	public ICommand get(String name) {
-		return commands.get(name);
+	public ICommand get(CharSequence name) {
+		int slot = hash(name) & tableMask;
+		char[] candidate;
+		while ((candidate = tableNames[slot]) != null) {
+			if (matches(candidate, name))
+				return tableCommands[slot].get();
+			slot = (slot + 1) & tableMask;
+		}
+		return null;
+	}
+
+	private static int hash(CharSequence name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++)
+			hash = 31 * hash + Character.toLowerCase(name.charAt(i));
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean matches(char[] lowerCaseName, CharSequence name) {
+		if (lowerCaseName.length != name.length())
+			return false;
+		for (int i = 0; i < lowerCaseName.length; i++) {
+			if (lowerCaseName[i] != Character.toLowerCase(name.charAt(i)))
+				return false;
+		}
+		return true;
 	}
 }
@@ -0,0 +1,200 @@
+package org.example.weather.impl;
+
+import org.example.weather.util.JsonReader;
+import org.example.weather.util.Polygon;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for the weather API hourly forecast payload.
+ */
+final class ForecastParser {
+	private ForecastParser() {
+	}
+
+	/**
+	 * Reads all forecast periods into a series. The document is streamed, so no tree of it is ever built.
+	 *
+	 * @param reader
+	 * 		Reader positioned at the start of the forecast document.
+	 *
+	 * @return Series of the forecast periods, along with the time window they are valid for
+	 * and the bounds of the grid cell they apply to.
+	 *
+	 * @throws IOException
+	 * 		When the document could not be read, or did not contain a forecast period.
+	 */
+	static ForecastSeries readSeries(JsonReader reader) throws IOException {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		Polygon cell = null;
+		long updatedAt = -1;
+		long validUntil = Long.MAX_VALUE;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (name.equals("geometry")) {
+				cell = readPolygon(reader);
+				continue;
+			}
+			if (!name.equals("properties")) {
+				reader.skipValue();
+				continue;
+			}
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+					case "updateTime":
+						updatedAt = parseTime(reader.nextString());
+						break;
+					case "validTimes":
+						validUntil = Math.min(validUntil, parseIntervalEnd(reader.nextString()));
+						break;
+					case "periods":
+						reader.beginArray();
+						while (reader.hasNext())
+							readPeriod(reader, builder);
+						reader.endArray();
+						break;
+					default:
+						reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		reader.endObject();
+		if (builder.size() == 0)
+			throw new IOException("Weather forecast API did not yield any 'periods'");
+		return builder.build(cell, updatedAt, validUntil);
+	}
+
+	@Nullable
+	private static Polygon readPolygon(JsonReader reader) throws IOException {
+		// GeoJSON geometry, where polygons are a list of rings made of '[longitude, latitude]' positions.
+		// The first ring is the outer boundary.
+		if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+			reader.skipValue();
+			return null;
+		}
+		String type = null;
+		double[] latitudes = new double[0];
+		double[] longitudes = new double[0];
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (name.equals("type") && reader.peek() == JsonReader.Token.STRING) {
+				type = reader.nextString();
+			} else if (name.equals("coordinates") && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+				reader.beginArray();
+				if (reader.hasNext() && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+					int count = 0;
+					latitudes = new double[8];
+					longitudes = new double[8];
+					reader.beginArray();
+					while (reader.hasNext()) {
+						if (count == latitudes.length) {
+							latitudes = Arrays.copyOf(latitudes, count * 2);
+							longitudes = Arrays.copyOf(longitudes, count * 2);
+						}
+						reader.beginArray();
+						longitudes[count] = reader.nextDouble();
+						latitudes[count] = reader.nextDouble();
+						while (reader.hasNext())
+							reader.skipValue(); // Altitude
+						reader.endArray();
+						count++;
+					}
+					reader.endArray();
+					latitudes = Arrays.copyOf(latitudes, count);
+					longitudes = Arrays.copyOf(longitudes, count);
+				}
+				while (reader.hasNext())
+					reader.skipValue(); // Holes
+				reader.endArray();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (!"Polygon".equals(type) || latitudes.length < 3)
+			return null;
+		return new Polygon(latitudes, longitudes);
+	}
+
+	private static void readPeriod(JsonReader reader, ForecastSeries.Builder builder) throws IOException {
+		String forecast = null;
+		String temperatureUnit = null;
+		String windSpeed = null;
+		String windDirection = null;
+		long startTime = -1;
+		long endTime = -1;
+		double temperature = Double.NaN;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+				case "startTime":
+					startTime = parseTime(reader.nextString());
+					break;
+				case "endTime":
+					endTime = parseTime(reader.nextString());
+					break;
+				case "shortForecast":
+					forecast = reader.nextString();
+					break;
+				case "temperature":
+					temperature = reader.nextDouble();
+					break;
+				case "temperatureUnit":
+					temperatureUnit = reader.nextString();
+					break;
+				case "windSpeed":
+					windSpeed = reader.nextString();
+					break;
+				case "windDirection":
+					windDirection = reader.nextString();
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+		reader.endObject();
+		if (forecast == null || temperatureUnit == null || windSpeed == null || windDirection == null
+				|| Double.isNaN(temperature) || startTime < 0 || endTime <= startTime)
+			throw new IOException("Weather forecast API yielded an incomplete period");
+		// Wind speed is formatted as '<speed> <unit>', or as a range '<min> to <max> <unit>'
+		String[] windSpeedParts = windSpeed.split("\\s+");
+		try {
+			builder.add(startTime, endTime, temperature, temperatureUnit,
+					Double.parseDouble(windSpeedParts[0]), windSpeedParts[windSpeedParts.length - 1],
+					windDirection, forecast);
+		} catch (NumberFormatException ex) {
+			throw new IOException("Weather forecast API yielded malformed wind speed: " + windSpeed);
+		} catch (IllegalStateException ex) {
+			throw new IOException("Weather forecast API yielded malformed periods: " + ex.getMessage());
+		}
+	}
+
+	private static long parseTime(String time) throws IOException {
+		try {
+			return OffsetDateTime.parse(time).toInstant().toEpochMilli();
+		} catch (DateTimeParseException ex) {
+			throw new IOException("Weather forecast API yielded malformed time: " + time);
+		}
+	}
+
+	private static long parseIntervalEnd(String interval) throws IOException {
+		// ISO-8601 interval of '<start>/<duration>', such as '2022-08-01T18:00:00+00:00/P7DT7H'
+		int split = interval.indexOf('/');
+		if (split < 0)
+			throw new IOException("Weather forecast API yielded malformed interval: " + interval);
+		try {
+			return parseTime(interval.substring(0, split)) + Duration.parse(interval.substring(split + 1)).toMillis();
+		} catch (DateTimeParseException ex) {
+			throw new IOException("Weather forecast API yielded malformed interval: " + interval);
+		}
+	}
+}
@@ -1,72 +1,282 @@
 package org.example.weather.impl;
 
 import com.eclipsesource.json.Json;
-import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 import org.example.weather.data.*;
+import org.example.weather.interfaces.IHttpTransport;
 import org.example.weather.interfaces.IWeatherProvider;
-import org.example.weather.util.HTTP;
+import org.example.weather.util.Cache;
+import org.example.weather.util.CachePolicy;
+import org.example.weather.util.Futures;
+import org.example.weather.util.JsonReader;
+import org.example.weather.util.SingleFlight;
+import org.example.weather.util.Validated;
+import org.example.weather.util.Validators;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InputStreamReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Implementation to lookup weather based on location.
+ * <p>
+ * Lookups are composed from asynchronous requests, so no thread is blocked while waiting on the weather API.
+ * The blocking lookup waits on the asynchronous one.
+ * Singleton scoped, so the commands and the server share one forecast cache.
+ * <p>
+ * Configuration via system properties:
+ * <ul>
+ *     <li>{@code weather.batch.concurrency} - Maximum number of forecasts a batch lookup fetches in parallel.</li>
+ * </ul>
  */
+@Singleton
 public class WeatherProvider implements IWeatherProvider {
 	private static final String API_POINTS_URL = "https://api.weather.gov/points/";
-	private final Map<String, String> pointsJsonCache = new HashMap<>(); // cache location per roughly 10km via coords 'XX.X'
+	private static final long POINTS_CACHE_MAX_BYTES = 1024 * 1024;
+	private static final long POINTS_CACHE_TTL_HOURS = 24; // grid assignments of points very rarely change
+	private static final long FORECAST_CACHE_MAX_ENTRIES = 1024;
+	private static final long GRID_INDEX_MAX_BUCKETS = 4096;
+	private static final long FORECAST_UPDATE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+	private static final long FORECAST_MIN_TTL_MS = TimeUnit.MINUTES.toMillis(1);
+	private static final int STATUS_NOT_MODIFIED = 304;
+	private static final int BATCH_CONCURRENCY = Integer.getInteger("weather.batch.concurrency", 8);
+	// Cache grid point per roughly 10km via coords 'XX.X', weighed by approximate string size in bytes.
+	// Expired entries are kept around until evicted, so that their validators can be used to revalidate them.
+	private final Cache<String, Validated<GridPoint>> gridPointCache =
+			new Cache<>(POINTS_CACHE_MAX_BYTES, point -> 2 * point.getValue().getForecastHourlyUrl().length());
+	// Cells of grid points with fetched forecasts, so any location within them skips the points lookup
+	private final GridCellIndex gridCellIndex =
+			new GridCellIndex(GRID_INDEX_MAX_BUCKETS, POINTS_CACHE_TTL_HOURS, TimeUnit.HOURS);
+	// Cache hourly forecast series per grid point, for as long as the API and the forecast allow.
+	// Expired series are kept around until evicted, as they can still answer for the hours they cover.
+	private final Cache<GridPoint, Validated<ForecastSeries>> forecastCache =
+			Cache.ofMaxEntries(FORECAST_CACHE_MAX_ENTRIES);
+	// Concurrent lookups missing the caches share a single upstream request
+	private final SingleFlight<String, GridPoint> pointsFlight = new SingleFlight<>();
+	private final SingleFlight<GridPoint, Weather> forecastFlight = new SingleFlight<>();
+	private final IHttpTransport transport;
+
+	@Inject
+	public WeatherProvider(IHttpTransport transport) {
+		this.transport = transport;
+	}
 
 	@Override
 	public Weather forLocation(@Nonnull Location location) throws WeatherLookupException {
-		try {
-			// Lookup weather point from location
-			String pointsJson = getPointsJson(location);
-			JsonObject pointsRoot = Json.parse(pointsJson).asObject();
-			JsonObject pointsProperties = pointsRoot.get("properties").asObject();
-			String forecastHourlyUrl = pointsProperties.getString("forecastHourly", null);
-			if (forecastHourlyUrl == null) {
-				throw new IOException("Weather lookup API did not yielded 'forecastHourly' property");
+		return Futures.await(forLocationAsync(location), WeatherLookupException.class, WeatherLookupException::new);
+	}
+
+	@Override
+	public CompletableFuture<Weather> forLocationAsync(@Nonnull Location location) {
+		// Lookup weather point from location, then weather from point
+		CompletableFuture<Weather> lookup = getGridPoint(location).thenCompose(this::getForecast);
+		return Futures.mapFailure(lookup, WeatherLookupException.class, WeatherLookupException::new);
+	}
+
+	@Override
+	public BatchWeather forLocations(@Nonnull Collection<Location> locations) {
+		// Locations within a known cell already have their grid point and can be grouped by it directly.
+		// The others are grouped by points entry, and any of those which turn out to share a grid point
+		// are coalesced by the forecast cache and in-flight request tracking.
+		Map<GridPoint, List<Location>> byGridPoint = new LinkedHashMap<>();
+		Map<String, List<Location>> byPointsKey = new LinkedHashMap<>();
+		for (Location location : new LinkedHashSet<>(locations)) {
+			GridPoint knownPoint = gridCellIndex.find(location.getLatitude(), location.getLongitude());
+			if (knownPoint != null)
+				byGridPoint.computeIfAbsent(knownPoint, k -> new ArrayList<>()).add(location);
+			else
+				byPointsKey.computeIfAbsent(pointsKey(location), k -> new ArrayList<>()).add(location);
+		}
+		List<List<Location>> groups = new ArrayList<>(byGridPoint.size() + byPointsKey.size());
+		List<Supplier<CompletableFuture<Weather>>> lookups = new ArrayList<>(byGridPoint.size() + byPointsKey.size());
+		byGridPoint.forEach((gridPoint, group) -> {
+			groups.add(group);
+			lookups.add(() -> getForecast(gridPoint));
+		});
+		byPointsKey.forEach((key, group) -> {
+			groups.add(group);
+			lookups.add(() -> getGridPoint(group.get(0)).thenCompose(this::getForecast));
+		});
+		List<CompletableFuture<Weather>> results = Futures.startBounded(lookups, BATCH_CONCURRENCY);
+		Map<Location, Weather> weather = new LinkedHashMap<>();
+		Map<Location, WeatherLookupException> failures = new LinkedHashMap<>();
+		for (int i = 0; i < results.size(); i++) {
+			List<Location> group = groups.get(i);
+			try {
+				Weather groupWeather = Futures.await(results.get(i),
+						WeatherLookupException.class, WeatherLookupException::new);
+				for (Location location : group)
+					weather.put(location, groupWeather);
+			} catch (WeatherLookupException ex) {
+				for (Location location : group)
+					failures.put(location, ex);
 			}
-			// Lookup weather from point
-			String forecastContent = requestForecastJson(forecastHourlyUrl);
-			JsonObject forecastRoot = Json.parse(forecastContent).asObject();
-			JsonObject forecastProperties = forecastRoot.get("properties").asObject();
-			JsonArray forecastPeriods = forecastProperties.get("periods").asArray();
-			JsonObject forecastCurrentPeriod = forecastPeriods.get(0).asObject();
-			// Parsing the current period
-			String forecast = forecastCurrentPeriod.get("shortForecast").asString();
-			Temperature temperature = new Temperature(
-					forecastCurrentPeriod.get("temperature").asInt(),
-					forecastCurrentPeriod.get("temperatureUnit").asString());
-			String[] windSpeed = forecastCurrentPeriod.get("windSpeed").asString().split("\\s+");
-			String windDirection = forecastCurrentPeriod.get("windDirection").asString();
-			Wind wind = new Wind(Double.parseDouble(windSpeed[0]), windSpeed[1], windDirection);
-			return new Weather(temperature, wind, forecast);
-		} catch (IOException ex) {
-			throw new WeatherLookupException(ex);
 		}
+		return new BatchWeather(weather, failures);
+	}
+
+	private static String pointsKey(Location location) {
+		return location.getFormattedLatitude(1) + "," + location.getFormattedLongitude(1);
+	}
+
+	private CompletableFuture<GridPoint> getGridPoint(Location location) {
+		GridPoint knownPoint = gridCellIndex.find(location.getLatitude(), location.getLongitude());
+		if (knownPoint != null)
+			return CompletableFuture.completedFuture(knownPoint);
+		String key = pointsKey(location);
+		Validated<GridPoint> cachedPoint = gridPointCache.get(key);
+		if (cachedPoint != null)
+			return CompletableFuture.completedFuture(cachedPoint.getValue());
+		return pointsFlight.executeAsync(key, () -> requestGridPoint(key, location));
+	}
+
+	private CompletableFuture<GridPoint> requestGridPoint(String key, Location location) {
+		// Check again, a flight that completed since the initial check may have populated the entry
+		Validated<GridPoint> cachedPoint = gridPointCache.get(key);
+		if (cachedPoint != null)
+			return CompletableFuture.completedFuture(cachedPoint.getValue());
+		Validated<GridPoint> stalePoint = gridPointCache.getStale(key);
+		String pointsUrl = API_POINTS_URL + location.getLatitude() + "," + location.getLongitude();
+		return transport.readBytesAsync(pointsUrl,
+						stalePoint == null ? Validators.NONE : stalePoint.getValidators(),
+						status -> "Weather points API '" + API_POINTS_URL + "' yielded status code: " + status)
+				.thenApply(Futures.unchecked(response -> {
+					if (stalePoint != null && response.statusCode() == STATUS_NOT_MODIFIED) {
+						// The response may carry updated validators, which the next revalidation must use
+						gridPointCache.put(key, new Validated<>(stalePoint.getValue(),
+										stalePoint.getValidators().updatedBy(response.headers())),
+								POINTS_CACHE_TTL_HOURS, TimeUnit.HOURS);
+						return stalePoint.getValue();
+					}
+					// Only the grid point is kept, not the full points document it was pulled from
+					GridPoint livePoint = readGridPoint(new String(response.body(), StandardCharsets.UTF_8));
+					gridPointCache.put(key, new Validated<>(livePoint, Validators.of(response.headers())),
+							POINTS_CACHE_TTL_HOURS, TimeUnit.HOURS);
+					return livePoint;
+				}));
 	}
 
-	private String getPointsJson(Location location) throws IOException {
-		String key = location.getFormattedLatitude(1) + "," + location.getFormattedLongitude(1);
-		String cachedJson = pointsJsonCache.get(key);
-		if (cachedJson != null)
-			return cachedJson;
-		String liveJson = requestPointsJson(location);
-		pointsJsonCache.put(key, liveJson);
-		return liveJson;
+	private CompletableFuture<Weather> getForecast(GridPoint gridPoint) {
+		Weather cachedWeather = getCachedWeather(gridPoint, System.currentTimeMillis());
+		if (cachedWeather != null)
+			return CompletableFuture.completedFuture(cachedWeather);
+		return forecastFlight.executeAsync(gridPoint, () -> requestForecast(gridPoint));
 	}
 
-	private String requestForecastJson(String forecastHourlyUrl) throws IOException {
-		return HTTP.readString(forecastHourlyUrl,
-				status -> "Weather forecast API '" + forecastHourlyUrl + "' yielded status code: " + status);
+	@Nullable
+	private Weather getCachedWeather(GridPoint gridPoint, long now) {
+		Validated<ForecastSeries> cachedSeries = forecastCache.get(gridPoint);
+		return cachedSeries == null ? null : cachedSeries.getValue().weatherAt(now);
 	}
 
-	private String requestPointsJson(Location location) throws IOException {
-		return HTTP.readString(API_POINTS_URL + location.getLatitude() + "," + location.getLongitude(),
-				status -> "Weather points API '" + API_POINTS_URL + "' yielded status code: " + status);
+	private CompletableFuture<Weather> requestForecast(GridPoint gridPoint) {
+		// Check again, a flight that completed since the initial check may have populated the entry
+		long requestedAt = System.currentTimeMillis();
+		Weather cachedWeather = getCachedWeather(gridPoint, requestedAt);
+		if (cachedWeather != null)
+			return CompletableFuture.completedFuture(cachedWeather);
+		// An expired series can only be revalidated while it still covers the current hour
+		Validated<ForecastSeries> staleSeries = forecastCache.getStale(gridPoint);
+		Validated<ForecastSeries> revalidatedSeries =
+				staleSeries != null && staleSeries.getValue().covers(requestedAt) ? staleSeries : null;
+		String forecastHourlyUrl = gridPoint.getForecastHourlyUrl();
+		return transport.readBytesAsync(forecastHourlyUrl,
+						revalidatedSeries == null ? Validators.NONE : revalidatedSeries.getValidators(),
+						status -> "Weather forecast API '" + forecastHourlyUrl + "' yielded status code: " + status)
+				.handle((response, failure) -> {
+					long now = System.currentTimeMillis();
+					try {
+						if (failure != null) {
+							// The expired series is still the best known forecast for this hour, so prefer it over failing
+							Weather staleWeather = revalidatedSeries == null ?
+									null : revalidatedSeries.getValue().weatherAt(now);
+							if (staleWeather != null)
+								return staleWeather;
+							throw new CompletionException(Futures.unwrap(failure));
+						}
+						return readForecast(gridPoint, response, revalidatedSeries, now);
+					} catch (IOException ex) {
+						throw new CompletionException(ex);
+					}
+				});
+	}
+
+	private Weather readForecast(GridPoint gridPoint, HttpResponse<byte[]> response,
+								 @Nullable Validated<ForecastSeries> revalidatedSeries, long now) throws IOException {
+		if (revalidatedSeries != null && response.statusCode() == STATUS_NOT_MODIFIED) {
+			// Unchanged upstream, extend the lifetime of the entry without parsing the forecast again.
+			// The response may carry updated validators, which the next revalidation must use.
+			ForecastSeries series = revalidatedSeries.getValue();
+			if (CachePolicy.isStorable(response.headers()))
+				forecastCache.put(gridPoint, new Validated<>(series,
+								revalidatedSeries.getValidators().updatedBy(response.headers())),
+						Math.max(0, expiresAt(response, series, now) - now), TimeUnit.MILLISECONDS);
+			return weatherAt(series, now);
+		}
+		// The whole series is decoded once, so later hours are served without another request
+		ForecastSeries series;
+		try (JsonReader reader = new JsonReader(new InputStreamReader(
+				new ByteArrayInputStream(response.body()), StandardCharsets.UTF_8))) {
+			series = ForecastParser.readSeries(reader);
+		}
+		if (series.getCell() != null)
+			gridCellIndex.add(gridPoint, series.getCell());
+		// Responses that must be revalidated are still stored, already expired, so that their validators are kept
+		if (CachePolicy.isStorable(response.headers()))
+			forecastCache.put(gridPoint, new Validated<>(series, Validators.of(response.headers())),
+					Math.max(0, expiresAt(response, series, now) - now), TimeUnit.MILLISECONDS);
+		return weatherAt(series, now);
+	}
+
+	private static Weather weatherAt(ForecastSeries series, long now) throws IOException {
+		Weather weather = series.weatherAt(now);
+		if (weather == null)
+			throw new IOException("Weather forecast API did not yield a period covering the current time");
+		return weather;
+	}
+
+	private static long expiresAt(HttpResponse<?> response, ForecastSeries series, long now) {
+		return Math.min(series.getValidUntil(), CachePolicy.expiresAt(response.headers(), now)
+				.orElseGet(() -> estimateNextUpdate(series.getUpdatedAt(), now)));
+	}
+
+	private static long estimateNextUpdate(long updatedAt, long now) {
+		// Without caching headers, assume the forecast is regenerated on its usual schedule
+		if (updatedAt < 0)
+			return now + FORECAST_MIN_TTL_MS;
+		return Math.max(updatedAt + FORECAST_UPDATE_INTERVAL_MS, now + FORECAST_MIN_TTL_MS);
+	}
+
+	private static GridPoint readGridPoint(String pointsJson) throws IOException {
+		JsonObject pointsRoot = Json.parse(pointsJson).asObject();
+		JsonObject pointsProperties = pointsRoot.get("properties").asObject();
+		String forecastHourlyUrl = pointsProperties.getString("forecastHourly", null);
+		if (forecastHourlyUrl == null) {
+			throw new IOException("Weather lookup API did not yielded 'forecastHourly' property");
+		}
+		String office = pointsProperties.getString("gridId", null);
+		int gridX = pointsProperties.getInt("gridX", -1);
+		int gridY = pointsProperties.getInt("gridY", -1);
+		if (office == null || gridX < 0 || gridY < 0) {
+			// Fall back to the forecast URL as identity, which is unique per grid point as well
+			return new GridPoint(forecastHourlyUrl, 0, 0, forecastHourlyUrl);
+		}
+		return new GridPoint(office, gridX, gridY, forecastHourlyUrl);
 	}
 }
@@ -3,6 +3,11 @@
 import org.example.weather.data.Location;
 import org.example.weather.data.LocationLookupException;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Tool outline to provide location lookup.
  */
@@ -14,4 +19,37 @@ public interface ILocationProvider {
 	 * 		When the current location could not be found.
 	 */
 	Location currentLocation() throws LocationLookupException;
+
+	/**
+	 * @return Future of the location of user upon request.
+	 * Completes exceptionally with a {@link LocationLookupException} when the current location could not be found.
+	 */
+	CompletableFuture<Location> currentLocationAsync();
+
+	/**
+	 * @return Location last resolved by {@link #currentLocation()}, possibly in a previous run,
+	 * or {@code null} if it was never resolved. May differ from the actual current location.
+	 */
+	@Nullable
+	Location lastKnownLocation();
+
+	/**
+	 * @param address
+	 * 		IP address to locate.
+	 *
+	 * @return Location of the address.
+	 *
+	 * @throws LocationLookupException
+	 * 		When the location of the address could not be found.
+	 */
+	Location forAddress(@Nonnull InetAddress address) throws LocationLookupException;
+
+	/**
+	 * @param address
+	 * 		IP address to locate.
+	 *
+	 * @return Future of the location of the address.
+	 * Completes exceptionally with a {@link LocationLookupException} when the location could not be found.
+	 */
+	CompletableFuture<Location> forAddressAsync(@Nonnull InetAddress address);
 }
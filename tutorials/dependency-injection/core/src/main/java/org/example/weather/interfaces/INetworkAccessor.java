@@ -2,6 +2,7 @@
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Tool outline for network activity.
@@ -14,4 +15,10 @@ public interface INetworkAccessor {
 	 * 		When the external address could not be retrieved.
 	 */
 	InetAddress externalAddress() throws IOException;
+
+	/**
+	 * @return Future of the external IP address of current user.
+	 * Completes exceptionally with an {@link IOException} when the external address could not be retrieved.
+	 */
+	CompletableFuture<InetAddress> externalAddressAsync();
 }
@@ -0,0 +1,262 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded in-memory cache with per-entry expiration.
+ * <ul>
+ *     <li>Reads are lock-free, only marking the entry as referenced.</li>
+ *     <li>Writes are serialized, and evict entries in write order once the total weight exceeds the bound.
+ *     Entries referenced since the last pass get a second chance, unless they have expired.
+ *     This approximates least recently used eviction at an amortized constant cost per write.</li>
+ *     <li>The weight of an entry is given by a weigher, so the bound can be an entry count or an approximate byte size.</li>
+ * </ul>
+ *
+ * @param <K>
+ * 		Key type.
+ * @param <V>
+ * 		Value type.
+ */
+public class Cache<K, V> {
+	private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+	// Entries in write order, eviction starting from the head. Replaced entries stay until they are reached or compacted.
+	private final ArrayDeque<Entry<K, V>> queue = new ArrayDeque<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final Object writeLock = new Object();
+	private final ToIntFunction<? super V> weigher;
+	private final LongSupplier clock;
+	private final long maxWeight;
+	private long totalWeight;
+
+	/**
+	 * @param maxWeight
+	 * 		Maximum total weight of all entries.
+	 * @param weigher
+	 * 		Function to compute the weight of a value.
+	 */
+	public Cache(long maxWeight, ToIntFunction<? super V> weigher) {
+		this(maxWeight, weigher, System::nanoTime);
+	}
+
+	/**
+	 * @param maxWeight
+	 * 		Maximum total weight of all entries.
+	 * @param weigher
+	 * 		Function to compute the weight of a value.
+	 * @param clock
+	 * 		Time in nanoseconds, such as {@link System#nanoTime()}, to expire entries by.
+	 */
+	Cache(long maxWeight, ToIntFunction<? super V> weigher, LongSupplier clock) {
+		if (maxWeight <= 0)
+			throw new IllegalArgumentException("Max weight must be positive");
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.clock = clock;
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		Maximum number of entries.
+	 * @param <K>
+	 * 		Key type.
+	 * @param <V>
+	 * 		Value type.
+	 *
+	 * @return Cache bound by entry count.
+	 */
+	public static <K, V> Cache<K, V> ofMaxEntries(long maxEntries) {
+		return new Cache<>(maxEntries, value -> 1);
+	}
+
+	/**
+	 * @param key
+	 * 		Key to lookup.
+	 *
+	 * @return Cached value, or {@code null} if there is no entry or the entry has expired.
+	 */
+	@Nullable
+	public V get(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null || entry.isExpired(clock.getAsLong())) {
+			misses.increment();
+			return null;
+		}
+		// Only write when needed, so hot entries do not keep invalidating the cache line across cores
+		if (!entry.referenced)
+			entry.referenced = true;
+		hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * @param key
+	 * 		Key to lookup.
+	 *
+	 * @return Cached value regardless of expiration, or {@code null} if there is no entry.
+	 * Does not count as a hit or miss, and does not count as an access for eviction.
+	 */
+	@Nullable
+	public V getStale(K key) {
+		Entry<K, V> entry = entries.get(key);
+		return entry == null ? null : entry.value;
+	}
+
+	/**
+	 * @param key
+	 * 		Key to store the value under.
+	 * @param value
+	 * 		Value to store.
+	 * @param ttl
+	 * 		Time the entry remains valid for.
+	 * @param unit
+	 * 		Unit of the time to live.
+	 */
+	public void put(K key, V value, long ttl, TimeUnit unit) {
+		int weight = weigher.applyAsInt(value);
+		long now = clock.getAsLong();
+		Entry<K, V> entry = new Entry<>(key, value, weight, now + unit.toNanos(ttl));
+		synchronized (writeLock) {
+			Entry<K, V> previous = entries.put(key, entry);
+			if (previous != null)
+				totalWeight -= previous.weight;
+			totalWeight += weight;
+			queue.addLast(entry);
+			evictToBound(now);
+			// Drop replaced entries once they outnumber live ones, which keeps the compaction amortized constant
+			if (queue.size() > 2 * entries.size())
+				queue.removeIf(this::isReplaced);
+		}
+	}
+
+	/**
+	 * @return Number of entries, including expired entries not yet evicted.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Snapshot of cache usage counters.
+	 */
+	public Stats stats() {
+		synchronized (writeLock) {
+			return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalWeight);
+		}
+	}
+
+	private void evictToBound(long now) {
+		while (totalWeight > maxWeight) {
+			Entry<K, V> entry = queue.pollFirst();
+			if (entry == null)
+				return;
+			if (isReplaced(entry))
+				continue;
+			if (entry.referenced && !entry.isExpired(now)) {
+				// Second chance, until the next pass over the queue
+				entry.referenced = false;
+				queue.addLast(entry);
+				continue;
+			}
+			entries.remove(entry.key);
+			totalWeight -= entry.weight;
+			evictions.increment();
+		}
+	}
+
+	private boolean isReplaced(Entry<K, V> entry) {
+		return entries.get(entry.key) != entry;
+	}
+
+	private static class Entry<K, V> {
+		private final K key;
+		private final V value;
+		private final int weight;
+		private final long expiresAt;
+		private volatile boolean referenced;
+
+		private Entry(K key, V value, int weight, long expiresAt) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+	}
+
+	/**
+	 * Snapshot of cache usage counters.
+	 */
+	public static class Stats {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int size;
+		private final long weight;
+
+		private Stats(long hits, long misses, long evictions, int size, long weight) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+			this.weight = weight;
+		}
+
+		/**
+		 * @return Number of lookups that yielded a value.
+		 */
+		public long getHits() {
+			return hits;
+		}
+
+		/**
+		 * @return Number of lookups that found no entry, or an expired one.
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return Number of entries removed to stay within the weight bound.
+		 */
+		public long getEvictions() {
+			return evictions;
+		}
+
+		/**
+		 * @return Number of entries at the time of the snapshot.
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * @return Total weight of entries at the time of the snapshot.
+		 */
+		public long getWeight() {
+			return weight;
+		}
+
+		@Override
+		public String toString() {
+			return "Stats{" +
+					"hits=" + hits +
+					", misses=" + misses +
+					", evictions=" + evictions +
+					", size=" + size +
+					", weight=" + weight +
+					'}';
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+/**
+ * Channel of typed, length-prefixed frames. Each frame is a type byte, a four byte length, and the payload.
+ * Writes are serialized, so frames of several writers on one channel never interleave.
+ */
+public class FrameChannel implements Closeable {
+	private static final int HEADER_SIZE = 5;
+	private static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+	private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+	private final ByteChannel channel;
+
+	/**
+	 * @param channel
+	 * 		Channel to read and write frames on.
+	 */
+	public FrameChannel(ByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * @return Next frame, or {@code null} when the channel is closed between frames.
+	 *
+	 * @throws IOException
+	 * 		When the channel could not be read, or the channel is closed within a frame.
+	 */
+	@Nullable
+	public Frame read() throws IOException {
+		header.clear();
+		if (!readFully(header, true))
+			return null;
+		byte type = header.get(0);
+		int length = header.getInt(1);
+		if (length < 0 || length > MAX_PAYLOAD_SIZE)
+			throw new IOException("Invalid frame length: " + length);
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		readFully(payload, false);
+		return new Frame(type, payload.array());
+	}
+
+	/**
+	 * @param type
+	 * 		Frame type.
+	 * @param payload
+	 * 		Frame payload.
+	 * @param offset
+	 * 		Offset of the payload in the array.
+	 * @param length
+	 * 		Length of the payload.
+	 *
+	 * @throws IOException
+	 * 		When the channel could not be written.
+	 */
+	public synchronized void write(byte type, byte[] payload, int offset, int length) throws IOException {
+		ByteBuffer frameHeader = ByteBuffer.allocate(HEADER_SIZE).put(type).putInt(length).flip();
+		ByteBuffer body = ByteBuffer.wrap(payload, offset, length);
+		while (frameHeader.hasRemaining())
+			channel.write(frameHeader);
+		while (body.hasRemaining())
+			channel.write(body);
+	}
+
+	/**
+	 * @param type
+	 * 		Frame type.
+	 *
+	 * @return Stream writing a frame of the given type for each write to it.
+	 */
+	public OutputStream stream(byte type) {
+		return new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				if (len > 0)
+					FrameChannel.this.write(type, b, off, len);
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private boolean readFully(ByteBuffer buffer, boolean allowEnd) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				if (allowEnd && buffer.position() == 0)
+					return false;
+				throw new EOFException("Channel closed within a frame");
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A single frame.
+	 */
+	public static final class Frame {
+		private final byte type;
+		private final byte[] payload;
+
+		private Frame(byte type, byte[] payload) {
+			this.type = type;
+			this.payload = payload;
+		}
+
+		/**
+		 * @return Frame type.
+		 */
+		public byte getType() {
+			return type;
+		}
+
+		/**
+		 * @return Frame payload.
+		 */
+		public byte[] getPayload() {
+			return payload;
+		}
+	}
+}
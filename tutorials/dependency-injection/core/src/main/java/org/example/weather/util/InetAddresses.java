@@ -0,0 +1,119 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Util for IP address literals.
+ * <p>
+ * {@link InetAddress#getByName(String)} falls back to a host name lookup for any text it cannot parse as a literal.
+ * Literals are parsed here instead, so that untrusted input can never trigger a lookup.
+ */
+public class InetAddresses {
+	/**
+	 * @param text
+	 * 		Address in dotted decimal IPv4 notation, or in colon separated IPv6 notation,
+	 * 		optionally ending with a dotted decimal IPv4 address. Scope IDs are not supported.
+	 *
+	 * @return Address, or {@code null} if the text is not an address literal.
+	 */
+	@Nullable
+	public static InetAddress parseLiteral(String text) {
+		byte[] bytes = text.indexOf(':') >= 0 ? parseV6(text) : parseV4(text, 0, text.length());
+		if (bytes == null)
+			return null;
+		try {
+			return InetAddress.getByAddress(bytes);
+		} catch (UnknownHostException ex) {
+			// Only thrown for lengths other than 4 or 16 bytes
+			return null;
+		}
+	}
+
+	@Nullable
+	private static byte[] parseV4(String text, int from, int to) {
+		byte[] bytes = new byte[4];
+		int i = from;
+		for (int part = 0; part < 4; part++) {
+			if (part > 0) {
+				if (i >= to || text.charAt(i) != '.')
+					return null;
+				i++;
+			}
+			int start = i;
+			int value = 0;
+			while (i < to && i - start < 3 && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+				value = value * 10 + text.charAt(i++) - '0';
+			if (i == start || value > 255)
+				return null;
+			bytes[part] = (byte) value;
+		}
+		return i == to ? bytes : null;
+	}
+
+	@Nullable
+	private static byte[] parseV6(String text) {
+		byte[] bytes = new byte[16];
+		int length = text.length();
+		int offset = 0;
+		// Offset the '::' stands at, if any
+		int gap = -1;
+		int i = 0;
+		if (text.startsWith("::")) {
+			gap = 0;
+			i = 2;
+		} else if (text.startsWith(":")) {
+			return null;
+		}
+		while (i < length) {
+			int start = i;
+			int value = 0;
+			while (i < length && i - start < 4 && hexDigit(text.charAt(i)) >= 0)
+				value = (value << 4) | hexDigit(text.charAt(i++));
+			if (i < length && text.charAt(i) == '.') {
+				// Trailing IPv4 address, taking the last 4 bytes
+				byte[] v4 = offset <= 12 ? parseV4(text, start, length) : null;
+				if (v4 == null)
+					return null;
+				System.arraycopy(v4, 0, bytes, offset, 4);
+				offset += 4;
+				break;
+			}
+			if (i == start || offset == 16)
+				return null;
+			bytes[offset++] = (byte) (value >>> 8);
+			bytes[offset++] = (byte) value;
+			if (i == length)
+				break;
+			if (text.charAt(i++) != ':' || i == length)
+				return null;
+			if (text.charAt(i) == ':') {
+				if (gap >= 0)
+					return null;
+				gap = offset;
+				i++;
+			}
+		}
+		if (gap < 0)
+			return offset == 16 ? bytes : null;
+		if (offset == 16)
+			return null;
+		// Move the groups after the '::' to the end, zeroes filling the gap
+		int shift = 16 - offset;
+		System.arraycopy(bytes, gap, bytes, gap + shift, offset - gap);
+		Arrays.fill(bytes, gap, gap + shift, (byte) 0);
+		return bytes;
+	}
+
+	private static int hexDigit(char c) {
+		if (c >= '0' && c <= '9')
+			return c - '0';
+		if (c >= 'a' && c <= 'f')
+			return c - 'a' + 10;
+		if (c >= 'A' && c <= 'F')
+			return c - 'A' + 10;
+		return -1;
+	}
+}
@@ -0,0 +1,282 @@
+package org.example.weather.util;
+
+import javax.annotation.Nullable;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of values per network prefix, so every address within a prefix shares one entry.
+ * Prefixes are {@code /24} for IPv4 and {@code /48} for IPv6.
+ * <p>
+ * Entries are held in a byte-wise trie per address family, where each node only holds the children that exist.
+ * Reads are lock-free, writes are serialized and replace the child arrays of a node rather than mutating them.
+ * Once the number of entries exceeds the bound, expired entries are evicted, then the least recently used ones,
+ * down to 90% of the bound. So a full sweep only happens once every tenth of the bound in new prefixes.
+ *
+ * @param <V>
+ * 		Value type.
+ */
+public class PrefixCache<V> {
+	private static final int IPV4_PREFIX_BYTES = 3;
+	private static final int IPV6_PREFIX_BYTES = 6;
+	private final Node<V> ipv4Root = new Node<>(null);
+	private final Node<V> ipv6Root = new Node<>(null);
+	private final Object writeLock = new Object();
+	private final LongSupplier clock;
+	private final int maxEntries;
+	private final int evictToEntries;
+	private volatile int size;
+
+	/**
+	 * @param maxEntries
+	 * 		Maximum number of prefixes to hold.
+	 */
+	public PrefixCache(int maxEntries) {
+		this(maxEntries, System::nanoTime);
+	}
+
+	/**
+	 * @param maxEntries
+	 * 		Maximum number of prefixes to hold.
+	 * @param clock
+	 * 		Time in nanoseconds, such as {@link System#nanoTime()}, to expire and age entries by.
+	 */
+	PrefixCache(int maxEntries, LongSupplier clock) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("Max entries must be positive");
+		this.clock = clock;
+		this.maxEntries = maxEntries;
+		this.evictToEntries = Math.max(1, maxEntries - Math.max(1, maxEntries / 10));
+	}
+
+	/**
+	 * @param address
+	 * 		Address to lookup.
+	 *
+	 * @return Prefix of the address, in CIDR notation.
+	 */
+	public static String prefixOf(InetAddress address) {
+		byte[] bytes = address.getAddress();
+		StringBuilder sb = new StringBuilder(24);
+		if (address instanceof Inet4Address) {
+			for (int i = 0; i < IPV4_PREFIX_BYTES; i++)
+				sb.append(bytes[i] & 0xFF).append('.');
+			return sb.append("0/24").toString();
+		}
+		for (int i = 0; i < IPV6_PREFIX_BYTES; i += 2)
+			sb.append(Integer.toHexString(((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF))).append(':');
+		return sb.append(":/48").toString();
+	}
+
+	/**
+	 * @param address
+	 * 		Address to lookup.
+	 *
+	 * @return Cached value of the prefix of the address, or {@code null} if there is no entry or the entry has expired.
+	 */
+	@Nullable
+	public V get(InetAddress address) {
+		byte[] bytes = address.getAddress();
+		Node<V> node = address instanceof Inet4Address ? ipv4Root : ipv6Root;
+		for (int i = 0; i < prefixLength(address); i++) {
+			node = node.branch.child(bytes[i]);
+			if (node == null)
+				return null;
+		}
+		Leaf<V> leaf = node.leaf;
+		long now = clock.getAsLong();
+		if (leaf == null || leaf.isExpired(now))
+			return null;
+		leaf.accessedAt = now;
+		return leaf.value;
+	}
+
+	/**
+	 * @param address
+	 * 		Address within the prefix to store the value for.
+	 * @param value
+	 * 		Value to store.
+	 * @param ttl
+	 * 		Time the entry remains valid for.
+	 * @param unit
+	 * 		Unit of the time to live.
+	 */
+	public void put(InetAddress address, V value, long ttl, TimeUnit unit) {
+		byte[] bytes = address.getAddress();
+		long now = clock.getAsLong();
+		synchronized (writeLock) {
+			Node<V> node = address instanceof Inet4Address ? ipv4Root : ipv6Root;
+			for (int i = 0; i < prefixLength(address); i++) {
+				Node<V> child = node.branch.child(bytes[i]);
+				if (child == null) {
+					child = new Node<>(node);
+					node.branch = node.branch.with(bytes[i], child);
+				}
+				node = child;
+			}
+			if (node.leaf == null)
+				size++;
+			node.leaf = new Leaf<>(value, now, now + unit.toNanos(ttl));
+			if (size > maxEntries)
+				evict(now);
+		}
+	}
+
+	/**
+	 * @return Number of prefixes, including expired entries not yet evicted.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private void evict(long now) {
+		List<Node<V>> expired = new ArrayList<>();
+		List<Aged<V>> live = new ArrayList<>();
+		sweep(ipv4Root, now, expired, live);
+		sweep(ipv6Root, now, expired, live);
+		for (Node<V> node : expired)
+			remove(node);
+		if (size <= evictToEntries)
+			return;
+		// Oldest access first. Ages are taken during the sweep, as reads keep updating the access times.
+		live.sort(Comparator.comparingLong((Aged<V> aged) -> aged.age).reversed());
+		for (int i = 0; i < live.size() && size > evictToEntries; i++)
+			remove(live.get(i).node);
+	}
+
+	private void sweep(Node<V> node, long now, List<Node<V>> expired, List<Aged<V>> live) {
+		Leaf<V> leaf = node.leaf;
+		if (leaf != null) {
+			if (leaf.isExpired(now))
+				expired.add(node);
+			else
+				live.add(new Aged<>(node, now - leaf.accessedAt));
+		}
+		for (Node<V> child : node.branch.children)
+			sweep(child, now, expired, live);
+	}
+
+	private void remove(Node<V> node) {
+		node.leaf = null;
+		size--;
+		// Prune the branch up to the first ancestor that still leads to other entries
+		while (node.parent != null && node.leaf == null && node.branch.children.length == 0) {
+			Node<V> parent = node.parent;
+			parent.branch = parent.branch.without(node);
+			node = parent;
+		}
+	}
+
+	private static int prefixLength(InetAddress address) {
+		return address instanceof Inet4Address ? IPV4_PREFIX_BYTES : IPV6_PREFIX_BYTES;
+	}
+
+	private static final class Node<V> {
+		private final Node<V> parent;
+		private volatile Branch<V> branch = Branch.empty();
+		private volatile Leaf<V> leaf;
+
+		private Node(@Nullable Node<V> parent) {
+			this.parent = parent;
+		}
+	}
+
+	/**
+	 * Immutable children of a node, sorted by their unsigned byte label.
+	 */
+	private static final class Branch<V> {
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private static final Branch<?> EMPTY = new Branch<>(new byte[0], new Node[0]);
+		private final byte[] labels;
+		private final Node<V>[] children;
+
+		private Branch(byte[] labels, Node<V>[] children) {
+			this.labels = labels;
+			this.children = children;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <V> Branch<V> empty() {
+			return (Branch<V>) EMPTY;
+		}
+
+		@Nullable
+		private Node<V> child(byte label) {
+			int index = indexOf(label);
+			return index >= 0 ? children[index] : null;
+		}
+
+		private Branch<V> with(byte label, Node<V> child) {
+			int index = -indexOf(label) - 1;
+			byte[] newLabels = new byte[labels.length + 1];
+			Node<V>[] newChildren = Arrays.copyOf(children, children.length + 1);
+			System.arraycopy(labels, 0, newLabels, 0, index);
+			System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+			System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+			newLabels[index] = label;
+			newChildren[index] = child;
+			return new Branch<>(newLabels, newChildren);
+		}
+
+		private Branch<V> without(Node<V> child) {
+			int index = Arrays.asList(children).indexOf(child);
+			if (index < 0)
+				return this;
+			byte[] newLabels = new byte[labels.length - 1];
+			Node<V>[] newChildren = Arrays.copyOf(children, children.length - 1);
+			System.arraycopy(labels, 0, newLabels, 0, index);
+			System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+			System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+			return new Branch<>(newLabels, newChildren);
+		}
+
+		private int indexOf(byte label) {
+			int key = label & 0xFF;
+			int low = 0;
+			int high = labels.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midKey = labels[mid] & 0xFF;
+				if (midKey < key)
+					low = mid + 1;
+				else if (midKey > key)
+					high = mid - 1;
+				else
+					return mid;
+			}
+			return -(low + 1);
+		}
+	}
+
+	private static final class Aged<V> {
+		private final Node<V> node;
+		private final long age;
+
+		private Aged(Node<V> node, long age) {
+			this.node = node;
+			this.age = age;
+		}
+	}
+
+	private static final class Leaf<V> {
+		private final V value;
+		private final long expiresAt;
+		private volatile long accessedAt;
+
+		private Leaf(V value, long accessedAt, long expiresAt) {
+			this.value = value;
+			this.accessedAt = accessedAt;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Location;
+import org.example.weather.data.LocationLookupException;
+import org.example.weather.interfaces.INetworkAccessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseLocationProviderTest {
+	private static final String CSV = String.join("\n",
+			"ip_start,ip_end,continent,country,stateprov,city,latitude,longitude",
+			"192.0.2.0,192.0.2.255,EU,DE,Berlin,Berlin,52.52,13.405",
+			"");
+	private static final INetworkAccessor NO_ACCESSOR = new INetworkAccessor() {
+		@Override
+		public InetAddress externalAddress() throws IOException {
+			throw new IOException("Offline");
+		}
+
+		@Override
+		public CompletableFuture<InetAddress> externalAddressAsync() {
+			return CompletableFuture.failedFuture(new IOException("Offline"));
+		}
+	};
+	@TempDir
+	Path dir;
+
+	@Test
+	void compilesCsvNextToItselfOnFirstLookup() throws Exception {
+		Path csv = Files.writeString(dir.resolve("locations.csv"), CSV);
+		DatabaseLocationProvider provider = new DatabaseLocationProvider(NO_ACCESSOR, csv);
+		Location location = provider.forAddress(InetAddress.getByName("192.0.2.42"));
+		assertEquals(52.52, location.getLatitude(), 1e-4);
+		assertEquals(13.405, location.getLongitude(), 1e-4);
+		assertTrue(Files.exists(dir.resolve("locations.csv.ipdb")));
+	}
+
+	@Test
+	void addressWithoutEntryFailsLookup() throws Exception {
+		Path csv = Files.writeString(dir.resolve("locations.csv"), CSV);
+		DatabaseLocationProvider provider = new DatabaseLocationProvider(NO_ACCESSOR, csv);
+		assertThrows(LocationLookupException.class, () -> provider.forAddress(InetAddress.getByName("198.51.100.1")));
+		// The opened database is kept, a miss does not fail later lookups
+		assertNotNull(provider.forAddress(InetAddress.getByName("192.0.2.1")));
+	}
+
+	@Test
+	void missingDatabaseFailsLookupUntilItExists() throws Exception {
+		Path csv = dir.resolve("locations.csv");
+		DatabaseLocationProvider provider = new DatabaseLocationProvider(NO_ACCESSOR, csv);
+		assertThrows(LocationLookupException.class, () -> provider.forAddress(InetAddress.getByName("192.0.2.1")));
+		// A failed load is not kept, so the next lookup opens the database once it is there
+		Files.writeString(csv, CSV);
+		assertNotNull(provider.forAddress(InetAddress.getByName("192.0.2.1")));
+	}
+
+	@Test
+	void unconfiguredDatabaseFailsLookup() {
+		DatabaseLocationProvider provider = new DatabaseLocationProvider(NO_ACCESSOR, null);
+		LocationLookupException ex = assertThrows(LocationLookupException.class,
+				() -> provider.forAddress(InetAddress.getByName("192.0.2.1")));
+		assertTrue(ex.getCause() instanceof IOException, "Not an IOException: " + ex.getCause());
+		assertTrue(ex.getCause().getMessage().contains("weather.ipdb"), "Not telling the property: " + ex.getCause());
+	}
+}
@@ -0,0 +1,157 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Weather;
+import org.example.weather.util.JsonReader;
+import org.example.weather.util.Polygon;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastParserTest {
+	private static final String GEOMETRY = "\"geometry\": {\"type\": \"Polygon\", \"coordinates\": [" +
+			"[[-97.1, 39.7, 0], [-97.0, 39.7], [-97.0, 39.8], [-97.1, 39.8], [-97.1, 39.7]], [[0, 0], [1, 1], [0, 1]]]}";
+
+	@Test
+	void readsPeriods() throws IOException {
+		ForecastSeries series = parse("{" +
+				"\"@context\": [\"https://geojson.org/geojson-ld/geojson-context.jsonld\", {\"@version\": \"1.1\"}]," +
+				"\"type\": \"Feature\"," + GEOMETRY + "," +
+				"\"properties\": {" +
+				"\"units\": \"us\"," +
+				"\"updateTime\": \"2022-08-01T18:00:00+00:00\"," +
+				"\"validTimes\": \"2022-08-01T18:00:00+00:00/P1D\"," +
+				"\"elevation\": {\"unitCode\": \"wmoUnit:m\", \"value\": 456.0}," +
+				"\"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00", 75, "F",
+						"5 mph", "N", "Sunny", ",\"icon\": null, \"isDaytime\": true") + "," +
+				period("2022-08-01T20:00:00+00:00", "2022-08-01T21:00:00+00:00", -2.5, "C",
+						"5 to 10 mph", "SSW", "Light \\\"Rain\\\" \\u2614", "") +
+				"]}}");
+		assertEquals(2, series.size());
+		assertEquals(time("2022-08-01T18:00:00Z"), series.getUpdatedAt());
+		assertEquals(time("2022-08-01T21:00:00Z"), series.getValidUntil());
+
+		Weather first = series.weatherAt(time("2022-08-01T19:30:00Z"));
+		assertNotNull(first);
+		assertEquals(75, first.getTemperature().getDegrees());
+		assertEquals("F", first.getTemperature().getDegreesMeasurement());
+		assertEquals(5, first.getWind().getSpeed());
+		assertEquals("mph", first.getWind().getMeasurement());
+		assertEquals("N", first.getWind().getDirection());
+		assertEquals("Sunny", first.getForecast());
+
+		Weather second = series.weatherAt(time("2022-08-01T20:00:00Z"));
+		assertNotNull(second);
+		assertEquals(-2.5, second.getTemperature().getDegrees());
+		// Ranges are read as their lower bound
+		assertEquals(5, second.getWind().getSpeed());
+		assertEquals("mph", second.getWind().getMeasurement());
+		assertEquals("SSW", second.getWind().getDirection());
+		assertEquals("Light \"Rain\" \u2614", second.getForecast());
+	}
+
+	@Test
+	void readsCell() throws IOException {
+		ForecastSeries series = parse("{" + GEOMETRY + ", \"properties\": {\"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"]}}");
+		Polygon cell = series.getCell();
+		assertNotNull(cell);
+		// Only the outer ring counts, holes are skipped
+		assertEquals(39.7, cell.getMinLatitude(), 1e-9);
+		assertEquals(39.8, cell.getMaxLatitude(), 1e-9);
+		assertEquals(-97.1, cell.getMinLongitude(), 1e-9);
+		assertEquals(-97.0, cell.getMaxLongitude(), 1e-9);
+		assertTrue(cell.contains(39.75, -97.05));
+		assertFalse(cell.contains(0.5, 0.5));
+	}
+
+	@Test
+	void ignoresOtherGeometries() throws IOException {
+		String periods = ", \"properties\": {\"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"]}}";
+		assertNull(parse("{\"geometry\": null" + periods).getCell());
+		assertNull(parse("{\"geometry\": {\"type\": \"Point\", \"coordinates\": [-97.1, 39.7]}" + periods).getCell());
+		assertNull(parse("{\"geometry\": {\"type\": \"Polygon\", \"coordinates\": []}" + periods).getCell());
+	}
+
+	@Test
+	void leavesUnknownTimesOpen() throws IOException {
+		ForecastSeries series = parse("{\"properties\": {\"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"]}}");
+		assertEquals(-1, series.getUpdatedAt());
+		assertEquals(time("2022-08-01T20:00:00Z"), series.getValidUntil());
+		assertNull(series.getCell());
+	}
+
+	@Test
+	void validTimesCutOffPeriods() throws IOException {
+		ForecastSeries series = parse("{\"properties\": {" +
+				"\"validTimes\": \"2022-08-01T18:00:00+00:00/PT1H30M\", \"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"]}}");
+		assertEquals(time("2022-08-01T19:30:00Z"), series.getValidUntil());
+		assertTrue(series.covers(time("2022-08-01T19:00:00Z")));
+		assertFalse(series.covers(time("2022-08-01T19:30:00Z")));
+	}
+
+	@Test
+	void rejectsMissingPeriods() {
+		IOException ex = assertThrows(IOException.class, () -> parse("{\"properties\": {\"periods\": []}}"));
+		assertEquals("Weather forecast API did not yield any 'periods'", ex.getMessage());
+		assertThrows(IOException.class, () -> parse("{\"type\": \"Feature\"}"));
+	}
+
+	@Test
+	void rejectsMalformedPeriods() {
+		assertThrows(IOException.class, () -> parseSingle("2022-08-01T19:00:00+00:00", "2022-08-01T20:00:00+00:00",
+				"calm"));
+		assertThrows(IOException.class, () -> parseSingle("yesterday", "2022-08-01T20:00:00+00:00", "5 mph"));
+		// Ends before it starts
+		assertThrows(IOException.class, () -> parseSingle("2022-08-01T20:00:00+00:00", "2022-08-01T19:00:00+00:00",
+				"5 mph"));
+		assertThrows(IOException.class, () -> parse("{\"properties\": {\"periods\": [{\"startTime\": " +
+				"\"2022-08-01T19:00:00+00:00\", \"endTime\": \"2022-08-01T20:00:00+00:00\"}]}}"));
+		assertThrows(IOException.class, () -> parse("{\"properties\": {" +
+				"\"validTimes\": \"2022-08-01T18:00:00+00:00\", \"periods\": []}}"));
+	}
+
+	@Test
+	void rejectsOverlappingPeriods() {
+		IOException ex = assertThrows(IOException.class, () -> parse("{\"properties\": {\"periods\": [" +
+				period("2022-08-01T19:00:00+00:00", "2022-08-01T21:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"," +
+				period("2022-08-01T20:00:00+00:00", "2022-08-01T22:00:00+00:00", 75, "F", "5 mph", "N", "Sunny", "") +
+				"]}}"));
+		assertTrue(ex.getMessage().startsWith("Weather forecast API yielded malformed periods"), ex.getMessage());
+	}
+
+	private static ForecastSeries parseSingle(String start, String end, String windSpeed) throws IOException {
+		return parse("{\"properties\": {\"periods\": [" +
+				period(start, end, 75, "F", windSpeed, "N", "Sunny", "") + "]}}");
+	}
+
+	private static ForecastSeries parse(String json) throws IOException {
+		try (JsonReader reader = new JsonReader(new StringReader(json))) {
+			return ForecastParser.readSeries(reader);
+		}
+	}
+
+	private static String period(String start, String end, double temperature, String temperatureUnit,
+								 String windSpeed, String windDirection, String forecast, String extra) {
+		return "{\"number\": 1, \"startTime\": \"" + start + "\", \"endTime\": \"" + end + "\"," +
+				"\"temperature\": " + temperature + ", \"temperatureUnit\": \"" + temperatureUnit + "\"," +
+				"\"windSpeed\": \"" + windSpeed + "\", \"windDirection\": \"" + windDirection + "\"," +
+				"\"shortForecast\": \"" + forecast + "\"" + extra + "}";
+	}
+
+	private static long time(String time) {
+		return OffsetDateTime.parse(time).toInstant().toEpochMilli();
+	}
+}
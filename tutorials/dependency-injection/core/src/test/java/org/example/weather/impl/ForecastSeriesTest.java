@@ -0,0 +1,113 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Weather;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastSeriesTest {
+	private static final long HOUR = 3_600_000;
+
+	@Test
+	void findsPeriodCoveringTime() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		builder.add(0, HOUR, 70, "F", 5, "mph", "N", "Sunny");
+		builder.add(HOUR, 2 * HOUR, 71, "F", 6, "mph", "NE", "Cloudy");
+		// Gap of an hour before the last period
+		builder.add(3 * HOUR, 4 * HOUR, 72, "F", 7, "mph", "E", "Rain");
+		ForecastSeries series = builder.build(null, 0, Long.MAX_VALUE);
+
+		assertEquals(3, series.size());
+		assertEquals("Sunny", series.weatherAt(0).getForecast());
+		assertEquals("Sunny", series.weatherAt(HOUR - 1).getForecast());
+		assertEquals("Cloudy", series.weatherAt(HOUR).getForecast());
+		assertNull(series.weatherAt(2 * HOUR));
+		assertEquals("Rain", series.weatherAt(3 * HOUR + 1).getForecast());
+		assertNull(series.weatherAt(-1));
+		assertNull(series.weatherAt(4 * HOUR));
+		assertFalse(series.covers(2 * HOUR + 1));
+		assertEquals(4 * HOUR, series.getValidUntil());
+	}
+
+	@Test
+	void validUntilCutsOffPeriods() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		builder.add(0, HOUR, 70, "F", 5, "mph", "N", "Sunny");
+		builder.add(HOUR, 2 * HOUR, 71, "F", 6, "mph", "N", "Sunny");
+		ForecastSeries series = builder.build(null, 0, HOUR + HOUR / 2);
+
+		assertEquals(HOUR + HOUR / 2, series.getValidUntil());
+		assertTrue(series.covers(HOUR));
+		assertFalse(series.covers(HOUR + HOUR / 2));
+	}
+
+	@Test
+	void emptySeriesExpiresWhenUpdated() {
+		ForecastSeries series = new ForecastSeries.Builder().build(null, 1_000, Long.MAX_VALUE);
+		assertEquals(0, series.size());
+		assertEquals(1_000, series.getValidUntil());
+		assertFalse(series.covers(0));
+	}
+
+	@Test
+	void keepsCompassAndOtherDirections() {
+		String[] compass = {
+				"N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE", "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"
+		};
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		for (int i = 0; i < compass.length; i++)
+			builder.add(i * HOUR, (i + 1) * HOUR, 70, "F", 5, "mph", compass[i], "Sunny");
+		// Not one of the compass points, so it gets a code of its own
+		builder.add(16 * HOUR, 17 * HOUR, 70, "F", 5, "mph", "Variable", "Sunny");
+		builder.add(17 * HOUR, 18 * HOUR, 70, "F", 5, "mph", "Variable", "Sunny");
+		ForecastSeries series = builder.build(null, 0, Long.MAX_VALUE);
+
+		for (int i = 0; i < compass.length; i++)
+			assertEquals(compass[i], series.weatherAt(i * HOUR).getWind().getDirection());
+		assertEquals("Variable", series.weatherAt(16 * HOUR).getWind().getDirection());
+		assertEquals("Variable", series.weatherAt(17 * HOUR).getWind().getDirection());
+	}
+
+	@Test
+	void rejectsTooManyDirections() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		// Byte codes leave room for 128 directions, 16 of which are the compass points
+		for (int i = 0; i < 112; i++)
+			builder.add(i * HOUR, (i + 1) * HOUR, 70, "F", 5, "mph", "D" + i, "Sunny");
+		assertThrows(IllegalStateException.class,
+				() -> builder.add(112 * HOUR, 113 * HOUR, 70, "F", 5, "mph", "D112", "Sunny"));
+	}
+
+	@Test
+	void sharesRepeatedTexts() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		builder.add(0, HOUR, 70.5, "F", 5, "mph", "N", "Sunny");
+		builder.add(HOUR, 2 * HOUR, 70.5, "F", 5, "mph", "N", "Sunny");
+		ForecastSeries series = builder.build(null, 0, Long.MAX_VALUE);
+		Weather first = series.weatherAt(0);
+		Weather second = series.weatherAt(HOUR);
+
+		assertEquals(first, second);
+		assertSame(first.getForecast(), second.getForecast());
+		assertSame(first.getTemperature().getDegreesMeasurement(), second.getTemperature().getDegreesMeasurement());
+	}
+
+	@Test
+	void rejectsPeriodsOutOfOrder() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		builder.add(HOUR, 2 * HOUR, 70, "F", 5, "mph", "N", "Sunny");
+		assertThrows(IllegalStateException.class, () -> builder.add(0, HOUR, 70, "F", 5, "mph", "N", "Sunny"));
+		assertThrows(IllegalStateException.class,
+				() -> builder.add(HOUR + 1, 3 * HOUR, 70, "F", 5, "mph", "N", "Sunny"));
+	}
+
+	@Test
+	void growsPastInitialCapacity() {
+		ForecastSeries.Builder builder = new ForecastSeries.Builder();
+		for (int i = 0; i < 200; i++)
+			builder.add(i * HOUR, (i + 1) * HOUR, i, "F", 5, "mph", "N", "Sunny");
+		ForecastSeries series = builder.build(null, 0, Long.MAX_VALUE);
+		assertEquals(200, series.size());
+		assertEquals(150, series.weatherAt(150 * HOUR).getTemperature().getDegrees());
+	}
+}
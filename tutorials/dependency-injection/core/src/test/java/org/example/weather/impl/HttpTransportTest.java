@@ -0,0 +1,127 @@
+package org.example.weather.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.weather.util.Validators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTransportTest {
+	private static final String ETAG = "\"v1\"";
+	private static final String UPDATED_ETAG = "\"v2\"";
+	private static final String LAST_MODIFIED = "Mon, 01 Aug 2022 18:00:00 GMT";
+	private final HttpTransport transport = new HttpTransport();
+	private ExecutorService serverExecutor;
+	private HttpServer server;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		serverExecutor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.setExecutor(serverExecutor);
+		// Answers conditional requests matching its validators with 304, and with updated validators
+		server.createContext("/forecast", exchange -> {
+			String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+			String lastModified = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+			if (ETAG.equals(etag) || (etag == null && LAST_MODIFIED.equals(lastModified))) {
+				exchange.getResponseHeaders().add("ETag", UPDATED_ETAG);
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			exchange.getResponseHeaders().add("ETag", ETAG);
+			exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+			respond(exchange, 200, "forecast");
+		});
+		server.createContext("/unmodified", exchange -> {
+			exchange.sendResponseHeaders(304, -1);
+			exchange.close();
+		});
+		server.createContext("/error", exchange -> respond(exchange, 503, "Unavailable"));
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Test
+	void unconditionalRequestReadsBody() throws Exception {
+		HttpResponse<byte[]> response = read("/forecast", Validators.NONE);
+		assertEquals(200, response.statusCode());
+		assertEquals("forecast", new String(response.body(), StandardCharsets.UTF_8));
+		assertEquals(new Validators(ETAG, LAST_MODIFIED), Validators.of(response.headers()));
+	}
+
+	@Test
+	void revalidatesWithEtag() throws Exception {
+		HttpResponse<byte[]> response = read("/forecast", new Validators(ETAG, LAST_MODIFIED));
+		assertEquals(304, response.statusCode());
+		assertEquals(new Validators(UPDATED_ETAG, LAST_MODIFIED),
+				new Validators(ETAG, LAST_MODIFIED).updatedBy(response.headers()));
+	}
+
+	@Test
+	void revalidatesWithLastModified() throws Exception {
+		assertEquals(304, read("/forecast", new Validators(null, LAST_MODIFIED)).statusCode());
+	}
+
+	@Test
+	void changedResourceReadsBody() throws Exception {
+		HttpResponse<byte[]> response = read("/forecast", new Validators("\"v0\"", null));
+		assertEquals(200, response.statusCode());
+		assertEquals("forecast", new String(response.body(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void unconditionalNotModifiedFails() {
+		// Without validators there is nothing a 304 could refer to
+		IOException failure = failure("/unmodified");
+		assertEquals("Bad status 304", failure.getMessage());
+	}
+
+	@Test
+	void badStatusFails() {
+		IOException failure = failure("/error");
+		assertEquals("Bad status 503", failure.getMessage());
+	}
+
+	private HttpResponse<byte[]> read(String path, Validators validators) throws Exception {
+		return transport.readBytesAsync(url(path), validators, status -> "Bad status " + status)
+				.get(5, TimeUnit.SECONDS);
+	}
+
+	private IOException failure(String path) {
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> read(path, Validators.NONE));
+		assertTrue(ex.getCause() instanceof IOException, "Not an IOException: " + ex.getCause());
+		return (IOException) ex.getCause();
+	}
+
+	private String url(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package org.example.weather.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.util.ByteScanner;
+import org.example.weather.util.Validators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkAccessorTest {
+	private static final String PRIMARY = "http://primary.test";
+	private static final String HEDGE = "http://hedge.test";
+	private static final String ADDRESS = "192.0.2.1";
+	private static final String OTHER_ADDRESS = "198.51.100.7";
+	private final AtomicLong clock = new AtomicLong();
+	private final List<Runnable> hedges = new ArrayList<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ExecutorService serverExecutor;
+	private HttpServer server;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		// Stand-ins for the echo endpoints, on an ephemeral loopback port
+		serverExecutor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.setExecutor(serverExecutor);
+		server.createContext("/fast", exchange -> respond(exchange, 200, ADDRESS + "\n"));
+		server.createContext("/slow", exchange -> {
+			awaitRelease();
+			respond(exchange, 200, OTHER_ADDRESS);
+		});
+		server.createContext("/hang", exchange -> {
+			awaitRelease();
+			exchange.close();
+		});
+		server.createContext("/error", exchange -> respond(exchange, 500, "Internal error"));
+		server.createContext("/garbage", exchange -> respond(exchange, 200, "<html>not an address</html>"));
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		release.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Test
+	void cancelledHedgeDoesNotOutrankWinner() {
+		FakeTransport transport = new FakeTransport();
+		NetworkAccessor accessor = new NetworkAccessor(transport, List.of(PRIMARY, HEDGE), 5_000,
+				clock::get, delayMs -> hedges::add);
+
+		// Without samples both endpoints are asked at once, the primary wins after 40 ms
+		CompletableFuture<InetAddress> first = accessor.lookupExternalAddress();
+		CompletableFuture<String> primary = transport.next(PRIMARY);
+		transport.next(HEDGE);
+		assertTrue(hedges.isEmpty());
+		advanceMs(40);
+		primary.complete(ADDRESS);
+		assertEquals(ADDRESS, first.join().getHostAddress());
+		assertEquals(List.of(PRIMARY, HEDGE), accessor.endpointRanking());
+
+		// The primary is asked alone, and the hedge as well once the hedge delay has passed.
+		// The primary wins 10 ms later, which cancels the hedge after only 10 ms.
+		CompletableFuture<InetAddress> second = accessor.lookupExternalAddress();
+		primary = transport.next(PRIMARY);
+		assertEquals(1, hedges.size());
+		advanceMs(80);
+		hedges.remove(0).run();
+		CompletableFuture<String> hedge = transport.next(HEDGE);
+		advanceMs(10);
+		primary.complete(ADDRESS);
+		assertEquals(ADDRESS, second.join().getHostAddress());
+		assertTrue(hedge.isCancelled());
+		// Losing only tells the hedge is no faster than the winner, its short run must not rank it above
+		assertEquals(List.of(PRIMARY, HEDGE), accessor.endpointRanking());
+	}
+
+	@Test
+	void hedgeIsNotStartedOnceThePrimaryWon() {
+		FakeTransport transport = new FakeTransport();
+		NetworkAccessor accessor = new NetworkAccessor(transport, List.of(PRIMARY, HEDGE), 5_000,
+				clock::get, delayMs -> hedges::add);
+		accessor.lookupExternalAddress();
+		advanceMs(40);
+		transport.next(PRIMARY).complete(ADDRESS);
+		transport.next(HEDGE);
+
+		CompletableFuture<InetAddress> lookup = accessor.lookupExternalAddress();
+		advanceMs(5);
+		transport.next(PRIMARY).complete(ADDRESS);
+		assertEquals(ADDRESS, lookup.join().getHostAddress());
+		hedges.remove(0).run();
+		assertTrue(transport.requests.isEmpty());
+	}
+
+	@Test
+	void failedPrimaryStartsHedgeWithoutDelay() {
+		FakeTransport transport = new FakeTransport();
+		NetworkAccessor accessor = new NetworkAccessor(transport, List.of(PRIMARY, HEDGE), 5_000,
+				clock::get, delayMs -> hedges::add);
+		accessor.lookupExternalAddress();
+		advanceMs(40);
+		transport.next(PRIMARY).complete(ADDRESS);
+		transport.next(HEDGE);
+
+		CompletableFuture<InetAddress> lookup = accessor.lookupExternalAddress();
+		transport.next(PRIMARY).completeExceptionally(new IOException("Connection refused"));
+		transport.next(HEDGE).complete(OTHER_ADDRESS);
+		assertEquals(OTHER_ADDRESS, lookup.join().getHostAddress());
+	}
+
+	@Test
+	void fastestStandInWins() throws Exception {
+		NetworkAccessor accessor = new NetworkAccessor(new HttpTransport(), List.of(url("/slow"), url("/fast")), 5_000);
+		assertEquals(ADDRESS, accessor.lookupExternalAddress().get(5, TimeUnit.SECONDS).getHostAddress());
+	}
+
+	@Test
+	void timedOutStandInFailsLookup() {
+		NetworkAccessor accessor = new NetworkAccessor(new HttpTransport(), List.of(url("/hang")), 200);
+		IOException failure = lookupFailure(accessor);
+		assertEquals(1, failure.getSuppressed().length);
+		assertTrue(failure.getSuppressed()[0] instanceof TimeoutException, "Not a timeout: " + failure.getSuppressed()[0]);
+	}
+
+	@Test
+	void failingStandInsFailLookup() {
+		NetworkAccessor accessor = new NetworkAccessor(new HttpTransport(), List.of(url("/error"), url("/garbage")), 5_000);
+		IOException failure = lookupFailure(accessor);
+		assertEquals("None of the external address endpoints answered", failure.getMessage());
+		assertEquals(2, failure.getSuppressed().length);
+	}
+
+	private void advanceMs(long ms) {
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+	}
+
+	private String url(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+
+	private static IOException lookupFailure(NetworkAccessor accessor) {
+		ExecutionException ex = assertThrows(ExecutionException.class,
+				() -> accessor.lookupExternalAddress().get(5, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof IOException, "Not an IOException: " + ex.getCause());
+		return (IOException) ex.getCause();
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Transport handing out incomplete futures, for the test to complete.
+	 */
+	private static class FakeTransport implements IHttpTransport {
+		private final Deque<Request> requests = new ArrayDeque<>();
+
+		private CompletableFuture<String> next(String url) {
+			Request request = requests.poll();
+			assertNotNull(request, "No request to " + url);
+			assertEquals(url, request.url);
+			return request.response;
+		}
+
+		@Override
+		public CompletableFuture<String> readStringAsync(String url, IntFunction<String> badStatusMessageProvider) {
+			CompletableFuture<String> response = new CompletableFuture<>();
+			requests.add(new Request(url, response));
+			return response;
+		}
+
+		@Override
+		public CompletableFuture<HttpResponse<byte[]>> readBytesAsync(String url, Validators validators,
+																	   IntFunction<String> badStatusMessageProvider) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> CompletableFuture<T> scanAsync(String url, ByteScanner<T> scanner,
+												  IntFunction<String> badStatusMessageProvider) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class Request {
+		private final String url;
+		private final CompletableFuture<String> response;
+
+		private Request(String url, CompletableFuture<String> response) {
+			this.url = url;
+			this.response = response;
+		}
+	}
+}
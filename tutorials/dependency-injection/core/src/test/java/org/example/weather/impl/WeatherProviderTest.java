@@ -0,0 +1,200 @@
+package org.example.weather.impl;
+
+import org.example.weather.data.Location;
+import org.example.weather.data.Weather;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.util.ByteScanner;
+import org.example.weather.util.Validators;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherProviderTest {
+	private static final String FORECAST_URL = "http://forecast.test/gridpoints/TOP/31,80/forecast/hourly";
+	private static final Location LOCATION = new Location(39.7456, -97.0892);
+	private final FakeTransport transport = new FakeTransport();
+	private final WeatherProvider provider = new WeatherProvider(transport);
+
+	@Test
+	void revalidatesExpiredForecast() throws Exception {
+		transport.forecasts.add(response(200, forecast(), "ETag", "\"v1\"", "Cache-Control", "no-cache"));
+		Weather weather = provider.forLocation(LOCATION);
+		assertEquals("Sunny", weather.getForecast());
+		assertEquals(List.of(Validators.NONE), transport.forecastValidators);
+
+		// Stored already expired, so the next lookup revalidates it, and the 304 carries an updated tag
+		transport.forecasts.add(response(304, "", "ETag", "\"v2\"", "Cache-Control", "no-cache"));
+		assertEquals(weather, provider.forLocation(LOCATION));
+		assertEquals(new Validators("\"v1\"", null), transport.forecastValidators.get(1));
+
+		// Revalidated with the updated tag, and now fresh for an hour
+		transport.forecasts.add(response(304, "", "Cache-Control", "max-age=3600"));
+		assertEquals(weather, provider.forLocation(LOCATION));
+		assertEquals(new Validators("\"v2\"", null), transport.forecastValidators.get(2));
+
+		assertEquals(weather, provider.forLocation(LOCATION));
+		assertEquals(3, transport.forecastValidators.size());
+		// The grid point was cached the whole time
+		assertEquals(1, transport.pointsRequests);
+	}
+
+	@Test
+	void changedForecastReplacesExpiredOne() throws Exception {
+		transport.forecasts.add(response(200, forecast(), "ETag", "\"v1\"", "Cache-Control", "no-cache"));
+		provider.forLocation(LOCATION);
+		transport.forecasts.add(response(200, forecast().replace("Sunny", "Rain"), "ETag", "\"v2\"",
+				"Cache-Control", "no-cache"));
+		assertEquals("Rain", provider.forLocation(LOCATION).getForecast());
+		transport.forecasts.add(response(304, ""));
+		assertEquals("Rain", provider.forLocation(LOCATION).getForecast());
+		assertEquals(new Validators("\"v2\"", null), transport.forecastValidators.get(2));
+	}
+
+	@Test
+	void failedRevalidationServesExpiredForecast() throws Exception {
+		transport.forecasts.add(response(200, forecast(), "ETag", "\"v1\"", "Cache-Control", "no-cache"));
+		Weather weather = provider.forLocation(LOCATION);
+		transport.failure = new IOException("Service unavailable");
+		assertEquals(weather, provider.forLocation(LOCATION));
+	}
+
+	@Test
+	void unstoredForecastIsNotRevalidated() throws Exception {
+		transport.forecasts.add(response(200, forecast(), "ETag", "\"v1\"", "Cache-Control", "no-store"));
+		provider.forLocation(LOCATION);
+		transport.forecasts.add(response(200, forecast(), "ETag", "\"v1\"", "Cache-Control", "no-store"));
+		provider.forLocation(LOCATION);
+		assertEquals(List.of(Validators.NONE, Validators.NONE), transport.forecastValidators);
+	}
+
+	private static String forecast() {
+		Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+		return "{\"properties\": {\"periods\": [" +
+				period(hour.minus(1, ChronoUnit.HOURS), hour.plus(2, ChronoUnit.HOURS)) + "]}}";
+	}
+
+	private static String period(Instant start, Instant end) {
+		return "{\"startTime\": \"" + start.atOffset(ZoneOffset.UTC) + "\", " +
+				"\"endTime\": \"" + end.atOffset(ZoneOffset.UTC) + "\", " +
+				"\"temperature\": 75, \"temperatureUnit\": \"F\", \"windSpeed\": \"5 mph\", " +
+				"\"windDirection\": \"N\", \"shortForecast\": \"Sunny\"}";
+	}
+
+	private static HttpResponse<byte[]> response(int status, String body, String... headerNamesAndValues) {
+		Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < headerNamesAndValues.length; i += 2)
+			headers.computeIfAbsent(headerNamesAndValues[i], name -> new ArrayList<>()).add(headerNamesAndValues[i + 1]);
+		return new FakeResponse(status, HttpHeaders.of(headers, (name, value) -> true),
+				body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Transport answering points lookups with a fixed grid point, and forecasts with queued responses.
+	 */
+	private static class FakeTransport implements IHttpTransport {
+		private final Deque<HttpResponse<byte[]>> forecasts = new ArrayDeque<>();
+		private final List<Validators> forecastValidators = new ArrayList<>();
+		private int pointsRequests;
+		private IOException failure;
+
+		@Override
+		public CompletableFuture<HttpResponse<byte[]>> readBytesAsync(String url, Validators validators,
+																	   IntFunction<String> badStatusMessageProvider) {
+			if (!url.equals(FORECAST_URL)) {
+				pointsRequests++;
+				return CompletableFuture.completedFuture(response(200, "{\"properties\": {" +
+						"\"forecastHourly\": \"" + FORECAST_URL + "\", \"gridId\": \"TOP\", \"gridX\": 31, \"gridY\": 80}}"));
+			}
+			forecastValidators.add(validators);
+			if (failure != null)
+				return CompletableFuture.failedFuture(failure);
+			HttpResponse<byte[]> response = forecasts.poll();
+			assertNotNull(response, "Unexpected forecast request");
+			return CompletableFuture.completedFuture(response);
+		}
+
+		@Override
+		public CompletableFuture<String> readStringAsync(String url, IntFunction<String> badStatusMessageProvider) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> CompletableFuture<T> scanAsync(String url, ByteScanner<T> scanner,
+												  IntFunction<String> badStatusMessageProvider) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class FakeResponse implements HttpResponse<byte[]> {
+		private final int status;
+		private final HttpHeaders headers;
+		private final byte[] body;
+
+		private FakeResponse(int status, HttpHeaders headers, byte[] body) {
+			this.status = status;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		@Override
+		public int statusCode() {
+			return status;
+		}
+
+		@Override
+		public HttpRequest request() {
+			return HttpRequest.newBuilder(URI.create(FORECAST_URL)).build();
+		}
+
+		@Override
+		public Optional<HttpResponse<byte[]>> previousResponse() {
+			return Optional.empty();
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return headers;
+		}
+
+		@Override
+		public byte[] body() {
+			return body;
+		}
+
+		@Override
+		public Optional<SSLSession> sslSession() {
+			return Optional.empty();
+		}
+
+		@Override
+		public URI uri() {
+			return URI.create(FORECAST_URL);
+		}
+
+		@Override
+		public HttpClient.Version version() {
+			return HttpClient.Version.HTTP_1_1;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachePolicyTest {
+	private static final long NOW = 1_659_376_800_000L; // Mon, 01 Aug 2022 18:00:00 GMT
+
+	@Test
+	void noStoreIsNotStorable() {
+		assertTrue(CachePolicy.isStorable(headers()));
+		assertTrue(CachePolicy.isStorable(headers("Cache-Control", "no-cache, max-age=60")));
+		assertFalse(CachePolicy.isStorable(headers("Cache-Control", "no-store")));
+		assertFalse(CachePolicy.isStorable(headers("Cache-Control", "public, No-Store")));
+	}
+
+	@Test
+	void maxAgeIsRelativeToNow() {
+		assertEquals(OptionalLong.of(NOW + 60_000), CachePolicy.expiresAt(headers("Cache-Control", "max-age=60"), NOW));
+		assertEquals(OptionalLong.of(NOW + 60_000),
+				CachePolicy.expiresAt(headers("Cache-Control", "public, MAX-AGE=\"60\""), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "max-age=0"), NOW));
+	}
+
+	@Test
+	void ageCountsAgainstMaxAge() {
+		assertEquals(OptionalLong.of(NOW + 40_000),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=60", "Age", "20"), NOW));
+		assertEquals(OptionalLong.of(NOW),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=60", "Age", "90"), NOW));
+		// Malformed or negative ages are ignored
+		assertEquals(OptionalLong.of(NOW + 60_000),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=60", "Age", "soon"), NOW));
+		assertEquals(OptionalLong.of(NOW + 60_000),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=60", "Age", "-5"), NOW));
+	}
+
+	@Test
+	void hugeMaxAgeSaturates() {
+		long max = NOW + (1L << 31) * 1000;
+		assertEquals(OptionalLong.of(max), CachePolicy.expiresAt(headers("Cache-Control", "max-age=2147483648"), NOW));
+		assertEquals(OptionalLong.of(max),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=9223372036854775807"), NOW));
+		assertEquals(OptionalLong.of(max),
+				CachePolicy.expiresAt(headers("Cache-Control", "max-age=99999999999999999999999"), NOW));
+		// Ages saturate the same way, so they still use up the whole max age
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers(
+				"Cache-Control", "max-age=99999999999999999999999", "Age", "99999999999999999999999"), NOW));
+	}
+
+	@Test
+	void mustRevalidateIsExpired() {
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "no-cache"), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "max-age=60, no-cache"), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "no-store"), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "max-age=later"), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Cache-Control", "max-age=-5"), NOW));
+	}
+
+	@Test
+	void expiresIsRelativeToDate() {
+		// The origin server's clock is six hours behind, the lifetime of an hour still applies from now
+		assertEquals(OptionalLong.of(NOW + 3_600_000), CachePolicy.expiresAt(headers(
+				"Date", "Mon, 01 Aug 2022 12:00:00 GMT", "Expires", "Mon, 01 Aug 2022 13:00:00 GMT"), NOW));
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers(
+				"Date", "Mon, 01 Aug 2022 12:00:00 GMT", "Expires", "Mon, 01 Aug 2022 11:00:00 GMT"), NOW));
+	}
+
+	@Test
+	void expiresWithoutDateIsRelativeToNow() {
+		assertEquals(OptionalLong.of(NOW + 3_600_000),
+				CachePolicy.expiresAt(headers("Expires", "Mon, 01 Aug 2022 19:00:00 GMT"), NOW));
+		assertEquals(OptionalLong.of(NOW + 3_600_000), CachePolicy.expiresAt(headers(
+				"Date", "yesterday", "Expires", "Mon, 01 Aug 2022 19:00:00 GMT"), NOW));
+		assertEquals(OptionalLong.of(NOW),
+				CachePolicy.expiresAt(headers("Expires", "Mon, 01 Aug 2022 17:00:00 GMT"), NOW));
+		// Invalid dates, such as '0', are in the past
+		assertEquals(OptionalLong.of(NOW), CachePolicy.expiresAt(headers("Expires", "0"), NOW));
+	}
+
+	@Test
+	void maxAgeOverridesExpires() {
+		assertEquals(OptionalLong.of(NOW + 60_000), CachePolicy.expiresAt(headers("Cache-Control", "max-age=60",
+				"Date", "Mon, 01 Aug 2022 12:00:00 GMT", "Expires", "Mon, 01 Aug 2022 13:00:00 GMT"), NOW));
+		// Other directives leave it to the Expires header
+		assertEquals(OptionalLong.of(NOW + 3_600_000), CachePolicy.expiresAt(headers("Cache-Control", "public",
+				"Date", "Mon, 01 Aug 2022 12:00:00 GMT", "Expires", "Mon, 01 Aug 2022 13:00:00 GMT"), NOW));
+	}
+
+	@Test
+	void noHeadersLeaveItOpen() {
+		assertEquals(OptionalLong.empty(), CachePolicy.expiresAt(headers(), NOW));
+		assertEquals(OptionalLong.empty(), CachePolicy.expiresAt(headers("Cache-Control", "public"), NOW));
+	}
+
+	static HttpHeaders headers(String... namesAndValues) {
+		Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < namesAndValues.length; i += 2)
+			map.computeIfAbsent(namesAndValues[i], name -> new ArrayList<>()).add(namesAndValues[i + 1]);
+		return HttpHeaders.of(map, (name, value) -> true);
+	}
+}
@@ -0,0 +1,162 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheTest {
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void expiresAfterTimeToLive() {
+		Cache<String, String> cache = new Cache<>(10, value -> 1, clock::get);
+		cache.put("a", "A", 10, TimeUnit.SECONDS);
+		advanceSeconds(9);
+		assertEquals("A", cache.get("a"));
+		advanceSeconds(1);
+		assertNull(cache.get("a"));
+		// Expired entries stay until evicted, for callers that can still use them
+		assertEquals("A", cache.getStale("a"));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void zeroTimeToLiveIsExpiredRightAway() {
+		Cache<String, String> cache = new Cache<>(10, value -> 1, clock::get);
+		cache.put("a", "A", 0, TimeUnit.SECONDS);
+		assertNull(cache.get("a"));
+		assertEquals("A", cache.getStale("a"));
+	}
+
+	@Test
+	void replacingRenewsTimeToLive() {
+		Cache<String, String> cache = new Cache<>(10, value -> 1, clock::get);
+		cache.put("a", "A", 10, TimeUnit.SECONDS);
+		advanceSeconds(8);
+		cache.put("a", "B", 10, TimeUnit.SECONDS);
+		advanceSeconds(8);
+		assertEquals("B", cache.get("a"));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.stats().getWeight());
+	}
+
+	@Test
+	void evictsInWriteOrder() {
+		Cache<String, String> cache = new Cache<>(3, value -> 1, clock::get);
+		cache.put("a", "A", 1, TimeUnit.HOURS);
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		cache.put("c", "C", 1, TimeUnit.HOURS);
+		cache.put("d", "D", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("a"));
+		assertEquals("B", cache.getStale("b"));
+		assertEquals("D", cache.getStale("d"));
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.stats().getEvictions());
+	}
+
+	@Test
+	void referencedEntriesGetSecondChance() {
+		Cache<String, String> cache = new Cache<>(3, value -> 1, clock::get);
+		cache.put("a", "A", 1, TimeUnit.HOURS);
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		cache.put("c", "C", 1, TimeUnit.HOURS);
+		assertEquals("A", cache.get("a"));
+		cache.put("d", "D", 1, TimeUnit.HOURS);
+		assertEquals("A", cache.getStale("a"));
+		assertNull(cache.getStale("b"));
+		// Requeued behind the newer entries, and evicted on its turn unless read again
+		cache.put("e", "E", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("c"));
+		cache.put("f", "F", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("d"));
+		assertEquals("A", cache.getStale("a"));
+		cache.put("g", "G", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("a"));
+		assertEquals(4, cache.stats().getEvictions());
+	}
+
+	@Test
+	void expiredEntriesGetNoSecondChance() {
+		Cache<String, String> cache = new Cache<>(3, value -> 1, clock::get);
+		cache.put("a", "A", 1, TimeUnit.SECONDS);
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		cache.put("c", "C", 1, TimeUnit.HOURS);
+		assertEquals("A", cache.get("a"));
+		advanceSeconds(2);
+		cache.put("d", "D", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("a"));
+		assertEquals("B", cache.getStale("b"));
+	}
+
+	@Test
+	void staleReadsDoNotCountAsReference() {
+		Cache<String, String> cache = new Cache<>(2, value -> 1, clock::get);
+		cache.put("a", "A", 1, TimeUnit.HOURS);
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		cache.getStale("a");
+		cache.put("c", "C", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("a"));
+	}
+
+	@Test
+	void evictsByWeight() {
+		Cache<String, String> cache = new Cache<>(10, String::length, clock::get);
+		cache.put("a", "AAAA", 1, TimeUnit.HOURS);
+		cache.put("b", "BBBB", 1, TimeUnit.HOURS);
+		assertEquals(8, cache.stats().getWeight());
+		cache.put("c", "CCCC", 1, TimeUnit.HOURS);
+		assertNull(cache.getStale("a"));
+		assertEquals(8, cache.stats().getWeight());
+		// Replacing an entry swaps its weight
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		assertEquals(5, cache.stats().getWeight());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void oversizedEntryEvictsEverything() {
+		Cache<String, String> cache = new Cache<>(4, String::length, clock::get);
+		cache.put("a", "AA", 1, TimeUnit.HOURS);
+		cache.put("b", "BBBBB", 1, TimeUnit.HOURS);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.stats().getWeight());
+	}
+
+	@Test
+	void replacedEntriesAreNotEvictedTwice() {
+		Cache<String, String> cache = new Cache<>(2, value -> 1, clock::get);
+		for (int i = 0; i < 100; i++)
+			cache.put("a", "A" + i, 1, TimeUnit.HOURS);
+		cache.put("b", "B", 1, TimeUnit.HOURS);
+		assertEquals("A99", cache.getStale("a"));
+		assertEquals("B", cache.getStale("b"));
+		assertEquals(0, cache.stats().getEvictions());
+	}
+
+	@Test
+	void countsHitsAndMisses() {
+		Cache<String, String> cache = new Cache<>(10, value -> 1, clock::get);
+		cache.put("a", "A", 1, TimeUnit.SECONDS);
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+		advanceSeconds(1);
+		cache.get("a");
+		Cache.Stats stats = cache.stats();
+		assertEquals(2, stats.getHits());
+		assertEquals(2, stats.getMisses());
+		assertEquals(1, stats.getSize());
+	}
+
+	@Test
+	void rejectsNonPositiveBound() {
+		assertThrows(IllegalArgumentException.class, () -> Cache.ofMaxEntries(0));
+	}
+
+	private void advanceSeconds(long seconds) {
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+}
@@ -0,0 +1,77 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InetAddressesTest {
+	@Test
+	void parsesIpv4() {
+		assertBytes(new int[]{192, 0, 2, 1}, "192.0.2.1");
+		assertBytes(new int[]{0, 0, 0, 0}, "0.0.0.0");
+		assertBytes(new int[]{255, 255, 255, 255}, "255.255.255.255");
+		assertTrue(InetAddresses.parseLiteral("10.0.0.1") instanceof Inet4Address);
+	}
+
+	@Test
+	void rejectsMalformedIpv4() {
+		for (String text : new String[]{"", "1", "1.2.3", "1.2.3.4.5", "256.0.0.1", "1.2.3.", ".1.2.3", "1..2.3",
+				"1.2.3.0004", "1.2.3.-4", "1.2.3.4 ", "+1.2.3.4", "0x1.2.3.4"})
+			assertNull(InetAddresses.parseLiteral(text), text);
+	}
+
+	@Test
+	void parsesIpv6() {
+		assertBytes(new int[]{0x20, 0x01, 0x0d, 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}, "2001:db8::1");
+		assertBytes(new int[]{0x20, 0x01, 0x0d, 0xb8, 0, 1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6}, "2001:DB8:1:2:3:4:5:6");
+		assertBytes(new int[16], "::");
+		assertBytes(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1}, "::1");
+		assertBytes(new int[]{0xfe, 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, "fe80::");
+		assertBytes(new int[]{0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2}, "1::2");
+		assertTrue(InetAddresses.parseLiteral("2001:db8::1") instanceof Inet6Address);
+	}
+
+	@Test
+	void parsesIpv6WithTrailingIpv4() {
+		assertBytes(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 192, 0, 2, 1}, "::192.0.2.1");
+		assertBytes(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, "0:0:0:0:0:0:0.0.0.0");
+		assertBytes(new int[]{0x20, 0x01, 0x0d, 0xb8, 0, 0, 0, 0, 0, 0, 0, 0, 192, 0, 2, 1}, "2001:db8::192.0.2.1");
+	}
+
+	@Test
+	void mappedIpv4IsIpv4() {
+		// The JDK collapses IPv4-mapped IPv6 addresses into IPv4 ones
+		InetAddress address = InetAddresses.parseLiteral("::ffff:192.0.2.1");
+		assertTrue(address instanceof Inet4Address);
+		assertEquals("192.0.2.1", address.getHostAddress());
+	}
+
+	@Test
+	void rejectsMalformedIpv6() {
+		for (String text : new String[]{":", ":::", "1:2", ":1::2", "1::2:", "1::2::3", "12345::", "1:2:3:4:5:6:7:8:9",
+				"1:2:3:4:5:6:7::8", "1:2:3:4:5:6:7:8::", "g::1", "1:2:3:4:5:6:7", "::1.2.3", "::1.2.3.4.5",
+				"1:2:3:4:5:6:7:1.2.3.4", "fe80::1%eth0", "[::1]", "::1 "})
+			assertNull(InetAddresses.parseLiteral(text), text);
+	}
+
+	@Test
+	void rejectsHostNames() {
+		// Any of these would be resolved by InetAddress.getByName
+		for (String text : new String[]{"localhost", "example.com", "a.b.c.d", "1.2.3.com", "dead.beef", "cafe",
+				"face:book.com", "::localhost"})
+			assertNull(InetAddresses.parseLiteral(text), text);
+	}
+
+	private static void assertBytes(int[] expected, String text) {
+		InetAddress address = InetAddresses.parseLiteral(text);
+		assertNotNull(address, text);
+		byte[] bytes = new byte[expected.length];
+		for (int i = 0; i < expected.length; i++)
+			bytes[i] = (byte) expected[i];
+		assertArrayEquals(bytes, address.getAddress(), text);
+	}
+}
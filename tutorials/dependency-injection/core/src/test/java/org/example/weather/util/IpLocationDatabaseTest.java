@@ -0,0 +1,163 @@
+package org.example.weather.util;
+
+import org.example.weather.data.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpLocationDatabaseTest {
+	private static final String CSV = String.join("\n",
+			"ip_start,ip_end,continent,country,stateprov,city,latitude,longitude",
+			// Rows are out of order, compiling sorts them
+			"198.51.100.0,198.51.100.255,NA,US,Kansas,\"Topeka, KS\",39.0483,-95.678",
+			"0.0.0.0,0.255.255.255,ZZ,ZZ,,,0,0",
+			"192.0.2.0,192.0.2.127,EU,DE,Berlin,Berlin,52.52,13.405",
+			"192.0.2.128,192.0.2.255,EU,FR,Paris,Paris,48.8566,2.3522",
+			"255.255.255.0,255.255.255.255,OC,AU,,Sydney,-33.8688,151.2093",
+			"2001:db8::,2001:db8::ffff,NA,US,,Seattle,47.6062,-122.3321",
+			"2001:db8:0:1::,2001:db8:0:1:ffff:ffff:ffff:ffff,AS,JP,,Tokyo,35.6762,139.6503",
+			"ff00::,ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff,SA,BR,,Rio,-22.9068,-43.1729",
+			"");
+	@TempDir
+	Path dir;
+
+	@Test
+	void findsIpv4RangesAtTheirBounds() throws IOException {
+		IpLocationDatabase database = compile(CSV);
+		assertEquals(8, database.size());
+		assertLocation(52.52, 13.405, database.find(address("192.0.2.0")));
+		assertLocation(52.52, 13.405, database.find(address("192.0.2.127")));
+		assertLocation(48.8566, 2.3522, database.find(address("192.0.2.128")));
+		assertLocation(48.8566, 2.3522, database.find(address("192.0.2.255")));
+		assertLocation(39.0483, -95.678, database.find(address("198.51.100.42")));
+		assertLocation(0, 0, database.find(address("0.0.0.0")));
+	}
+
+	@Test
+	void missesIpv4OutsideRanges() throws IOException {
+		IpLocationDatabase database = compile(CSV);
+		assertNull(database.find(address("1.0.0.0")));
+		assertNull(database.find(address("192.0.1.255")));
+		assertNull(database.find(address("192.0.3.0")));
+		assertNull(database.find(address("198.51.101.0")));
+		assertNull(database.find(address("255.255.254.255")));
+	}
+
+	@Test
+	void comparesHighIpv4AddressesUnsigned() throws IOException {
+		IpLocationDatabase database = compile(CSV);
+		assertLocation(-33.8688, 151.2093, database.find(address("255.255.255.0")));
+		assertLocation(-33.8688, 151.2093, database.find(address("255.255.255.255")));
+		assertNull(database.find(address("128.0.0.0")));
+	}
+
+	@Test
+	void findsIpv6RangesAtTheirBounds() throws IOException {
+		IpLocationDatabase database = compile(CSV);
+		assertLocation(47.6062, -122.3321, database.find(address("2001:db8::")));
+		assertLocation(47.6062, -122.3321, database.find(address("2001:db8::ffff")));
+		assertNull(database.find(address("2001:db8::1:0")));
+		assertNull(database.find(address("2001:db7:ffff:ffff:ffff:ffff:ffff:ffff")));
+		assertLocation(35.6762, 139.6503, database.find(address("2001:db8:0:1::")));
+		assertLocation(35.6762, 139.6503, database.find(address("2001:db8:0:1:ffff:ffff:ffff:ffff")));
+		assertNull(database.find(address("2001:db8:0:2::")));
+	}
+
+	@Test
+	void comparesHighIpv6AddressesUnsigned() throws IOException {
+		IpLocationDatabase database = compile(CSV);
+		assertLocation(-22.9068, -43.1729, database.find(address("ff00::")));
+		assertLocation(-22.9068, -43.1729, database.find(address("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")));
+		assertNull(database.find(address("8000::")));
+		assertNull(database.find(address("feff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")));
+	}
+
+	@Test
+	void emptyDatabaseFindsNothing() throws IOException {
+		IpLocationDatabase database = compile("ip_start,ip_end,latitude,longitude\n");
+		assertEquals(0, database.size());
+		assertNull(database.find(address("192.0.2.1")));
+		assertNull(database.find(address("2001:db8::1")));
+	}
+
+	@Test
+	void readsGzippedCsv() throws IOException {
+		Path csv = dir.resolve("ranges.csv.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(csv))) {
+			out.write(CSV.getBytes(StandardCharsets.UTF_8));
+		}
+		Path output = dir.resolve("ranges.ipdb");
+		IpLocationDatabase.compile(csv, output);
+		assertLocation(52.52, 13.405, IpLocationDatabase.open(output).find(address("192.0.2.1")));
+	}
+
+	@Test
+	void rejectsMalformedRows() {
+		assertMalformed("192.0.2.0,192.0.2.255,52.52");
+		assertMalformed("192.0.2.0,localhost,52.52,13.405");
+		assertMalformed("192.0.2.255,192.0.2.0,52.52,13.405");
+		assertMalformed("192.0.2.0,2001:db8::,52.52,13.405");
+		assertMalformed("192.0.2.0,192.0.2.255,north,13.405");
+		assertMalformed("192.0.2.0,192.0.2.255,52.52,180.5");
+		assertMalformed("192.0.2.0,192.0.2.255,NaN,13.405");
+	}
+
+	@Test
+	void boundsLatitudeAndLongitudeApart() throws IOException {
+		assertMalformed("192.0.2.0,192.0.2.255,95,13.405");
+		assertMalformed("192.0.2.0,192.0.2.255,-90.5,13.405");
+		assertMalformed("192.0.2.0,192.0.2.255,52.52,-180.5");
+		IpLocationDatabase database = compile("192.0.2.0,192.0.2.255,-90,180\n");
+		assertLocation(-90, 180, database.find(address("192.0.2.1")));
+	}
+
+	@Test
+	void rejectsOtherFiles() throws IOException {
+		Path file = dir.resolve("other.ipdb");
+		Files.write(file, "not a database, but long enough".getBytes(StandardCharsets.UTF_8));
+		assertThrows(IOException.class, () -> IpLocationDatabase.open(file));
+		Path truncated = dir.resolve("truncated.ipdb");
+		IpLocationDatabase.compile(write(CSV), truncated);
+		byte[] bytes = Files.readAllBytes(truncated);
+		Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> IpLocationDatabase.open(truncated));
+	}
+
+	private void assertMalformed(String row) {
+		IOException ex = assertThrows(IOException.class, () -> compile(row), row);
+		assertTrue(ex.getMessage().startsWith("Malformed IP location row 1"), ex.getMessage());
+	}
+
+	private IpLocationDatabase compile(String csv) throws IOException {
+		Path output = dir.resolve("ranges.ipdb");
+		IpLocationDatabase.compile(write(csv), output);
+		return IpLocationDatabase.open(output);
+	}
+
+	private Path write(String csv) throws IOException {
+		Path file = dir.resolve("ranges.csv");
+		Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static void assertLocation(double latitude, double longitude, Location location) {
+		assertNotNull(location);
+		assertEquals(latitude, location.getLatitude(), 1e-5);
+		assertEquals(longitude, location.getLongitude(), 1e-5);
+	}
+
+	private static InetAddress address(String literal) {
+		InetAddress address = InetAddresses.parseLiteral(literal);
+		assertNotNull(address, literal);
+		return address;
+	}
+}
@@ -0,0 +1,168 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+	@Test
+	void readsEscapes() throws IOException {
+		JsonReader reader = reader("\"quote \\\" backslash \\\\ slash \\/ \\b\\f\\n\\r\\t\"");
+		assertEquals("quote \" backslash \\ slash / \b\f\n\r\t", reader.nextString());
+		assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+	}
+
+	@Test
+	void readsUnicodeEscapes() throws IOException {
+		JsonReader reader = reader("[\"\\u00e9\\u00C9\", \"\\ud83c\\udf27\", \"\u00b0F\"]");
+		reader.beginArray();
+		assertEquals("\u00e9\u00c9", reader.nextString());
+		// Characters outside the basic plane are escaped as surrogate pairs
+		assertEquals("\uD83C\uDF27", reader.nextString());
+		assertEquals("\u00b0F", reader.nextString());
+		reader.endArray();
+	}
+
+	@Test
+	void rejectsMalformedEscapes() {
+		assertThrows(IOException.class, () -> reader("\"\\u00g0\"").nextString());
+		assertThrows(IOException.class, () -> reader("\"\\u00").nextString());
+		assertThrows(IOException.class, () -> reader("\"\\x\"").nextString());
+		assertThrows(IOException.class, () -> reader("\"unterminated").nextString());
+	}
+
+	@Test
+	void readsEscapedNames() throws IOException {
+		JsonReader reader = reader("{\"a\\\"b\": 1}");
+		reader.beginObject();
+		assertEquals("a\"b", reader.nextName());
+		assertEquals(1, reader.nextDouble());
+		reader.endObject();
+	}
+
+	@Test
+	void readsNumbers() throws IOException {
+		JsonReader reader = reader("[0, -12, 3.25, 1e3, 2.5E-2, -0.5e+1]");
+		reader.beginArray();
+		assertEquals(0, reader.nextDouble());
+		assertEquals(-12, reader.nextDouble());
+		assertEquals(3.25, reader.nextDouble());
+		assertEquals(1000, reader.nextDouble());
+		assertEquals(0.025, reader.nextDouble());
+		assertEquals(-5, reader.nextDouble());
+		assertFalse(reader.hasNext());
+		reader.endArray();
+	}
+
+	@Test
+	void rejectsMalformedNumbers() {
+		assertThrows(IOException.class, () -> reader("-").nextDouble());
+		assertThrows(IOException.class, () -> reader("1.2.3").nextDouble());
+		assertThrows(IOException.class, () -> reader("\"1\"").nextDouble());
+	}
+
+	@Test
+	void readsLiterals() throws IOException {
+		JsonReader reader = reader("[true, false, null]");
+		reader.beginArray();
+		assertTrue(reader.nextBoolean());
+		assertFalse(reader.nextBoolean());
+		assertEquals(JsonReader.Token.NULL, reader.peek());
+		reader.nextNull();
+		reader.endArray();
+		assertThrows(IOException.class, () -> reader("nil").nextNull());
+		assertThrows(IOException.class, () -> reader("truth").nextBoolean());
+	}
+
+	@Test
+	void skipsNestedValues() throws IOException {
+		JsonReader reader = reader("{\"skipped\": {\"a\": [1, [2, {\"b\": \"]}\"}], {}], \"c\": null}, \"kept\": true}");
+		reader.beginObject();
+		assertEquals("skipped", reader.nextName());
+		reader.skipValue();
+		assertEquals("kept", reader.nextName());
+		assertTrue(reader.nextBoolean());
+		reader.endObject();
+		assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+	}
+
+	@Test
+	void skipsScalarValues() throws IOException {
+		JsonReader reader = reader("[\"a \\\"quoted\\\" \\u0041\", -1.5e2, false, null, 7]");
+		reader.beginArray();
+		for (int i = 0; i < 4; i++)
+			reader.skipValue();
+		assertEquals(7, reader.nextDouble());
+		reader.endArray();
+	}
+
+	@Test
+	void skipAtEndOfScopeLeavesScope() throws IOException {
+		JsonReader reader = reader("{\"outer\": [1], \"next\": 2}");
+		reader.beginObject();
+		assertEquals("outer", reader.nextName());
+		reader.beginArray();
+		reader.skipValue();
+		assertThrows(IOException.class, reader::skipValue);
+		// The array is still open, and the object around it untouched
+		reader.endArray();
+		assertEquals("next", reader.nextName());
+		assertEquals(2, reader.nextDouble());
+		assertThrows(IOException.class, reader::skipValue);
+		reader.endObject();
+	}
+
+	@Test
+	void skipAtEndOfDocumentFails() throws IOException {
+		JsonReader reader = reader("1");
+		reader.skipValue();
+		assertThrows(IOException.class, reader::skipValue);
+	}
+
+	@Test
+	void rejectsMalformedStructure() {
+		assertThrows(IOException.class, () -> {
+			JsonReader reader = reader("[1 2]");
+			reader.beginArray();
+			reader.nextDouble();
+			reader.nextDouble();
+		});
+		assertThrows(IOException.class, () -> {
+			JsonReader reader = reader("{\"a\" 1}");
+			reader.beginObject();
+			reader.nextName();
+			reader.nextDouble();
+		});
+		assertThrows(IOException.class, () -> {
+			JsonReader reader = reader("[1");
+			reader.beginArray();
+			reader.nextDouble();
+			reader.endArray();
+		});
+		assertThrows(IOException.class, () -> {
+			JsonReader reader = reader("1 2");
+			reader.nextDouble();
+			reader.peek();
+		});
+	}
+
+	@Test
+	void readsAcrossBufferBoundaries() throws IOException {
+		// Longer than the read buffer, so tokens straddle refills
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < 2_000; i++)
+			json.append(i == 0 ? "" : ",").append("\"\\u0041").append(i).append('"');
+		JsonReader reader = reader(json.append(']').toString());
+		reader.beginArray();
+		for (int i = 0; i < 2_000; i++)
+			assertEquals("A" + i, reader.nextString());
+		reader.endArray();
+	}
+
+	private static JsonReader reader(String json) {
+		return new JsonReader(new StringReader(json));
+	}
+}
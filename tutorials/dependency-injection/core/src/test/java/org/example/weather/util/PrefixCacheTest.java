@@ -0,0 +1,137 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixCacheTest {
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void ipv4AddressesShareTheirSlash24() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		cache.put(address("192.0.2.17"), "A", 1, TimeUnit.HOURS);
+		assertEquals("A", cache.get(address("192.0.2.0")));
+		assertEquals("A", cache.get(address("192.0.2.255")));
+		assertNull(cache.get(address("192.0.3.17")));
+		assertNull(cache.get(address("193.0.2.17")));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void ipv6AddressesShareTheirSlash48() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		cache.put(address("2001:db8:1::1"), "A", 1, TimeUnit.HOURS);
+		assertEquals("A", cache.get(address("2001:db8:1:ffff:ffff:ffff:ffff:ffff")));
+		assertNull(cache.get(address("2001:db8:2::1")));
+		assertNull(cache.get(address("2001:db9:1::1")));
+	}
+
+	@Test
+	void familiesAreSeparate() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		// Both start with the bytes 32.1.13, but only the IPv4 address is in that /24
+		cache.put(address("32.1.13.184"), "v4", 1, TimeUnit.HOURS);
+		assertNull(cache.get(address("2001:db8::1")));
+		cache.put(address("2001:db8::1"), "v6", 1, TimeUnit.HOURS);
+		assertEquals("v4", cache.get(address("32.1.13.1")));
+		assertEquals("v6", cache.get(address("2001:db8::2")));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void replacesEntryOfPrefix() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		cache.put(address("192.0.2.1"), "A", 1, TimeUnit.HOURS);
+		cache.put(address("192.0.2.2"), "B", 1, TimeUnit.HOURS);
+		assertEquals("B", cache.get(address("192.0.2.1")));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void expiresAfterTimeToLive() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		cache.put(address("192.0.2.1"), "A", 10, TimeUnit.SECONDS);
+		advanceSeconds(9);
+		assertEquals("A", cache.get(address("192.0.2.1")));
+		advanceSeconds(1);
+		assertNull(cache.get(address("192.0.2.1")));
+	}
+
+	@Test
+	void evictsExpiredEntriesFirst() {
+		PrefixCache<String> cache = new PrefixCache<>(10, clock::get);
+		for (int i = 0; i < 8; i++) {
+			cache.put(address("10.0." + i + ".1"), "E" + i, 1, TimeUnit.HOURS);
+			advanceSeconds(1);
+		}
+		// The most recently used entries, but expired by the next write
+		cache.put(address("2001:db8:8::1"), "E8", 1, TimeUnit.SECONDS);
+		cache.put(address("2001:db8:9::1"), "E9", 1, TimeUnit.SECONDS);
+		advanceSeconds(2);
+		cache.put(address("10.0.10.1"), "E10", 1, TimeUnit.HOURS);
+		assertEquals(9, cache.size());
+		assertEquals("E0", cache.get(address("10.0.0.1")));
+		assertNull(cache.get(address("2001:db8:8::1")));
+		assertEquals("E10", cache.get(address("10.0.10.1")));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedToNinetyPercent() {
+		PrefixCache<String> cache = new PrefixCache<>(20, clock::get);
+		for (int i = 0; i < 20; i++) {
+			cache.put(address("10.0." + i + ".1"), "E" + i, 1, TimeUnit.HOURS);
+			advanceSeconds(1);
+		}
+		// Reading the oldest entries makes the next ones the least recently used
+		assertEquals("E0", cache.get(address("10.0.0.1")));
+		assertEquals("E1", cache.get(address("10.0.1.1")));
+		advanceSeconds(1);
+		cache.put(address("10.0.20.1"), "E20", 1, TimeUnit.HOURS);
+		assertEquals(18, cache.size());
+		assertEquals("E0", cache.get(address("10.0.0.1")));
+		assertEquals("E1", cache.get(address("10.0.1.1")));
+		assertNull(cache.get(address("10.0.2.1")));
+		assertNull(cache.get(address("10.0.4.1")));
+		assertEquals("E5", cache.get(address("10.0.5.1")));
+		assertEquals("E20", cache.get(address("10.0.20.1")));
+		// Room for another tenth of the bound, before the next sweep
+		cache.put(address("10.0.21.1"), "E21", 1, TimeUnit.HOURS);
+		cache.put(address("10.0.22.1"), "E22", 1, TimeUnit.HOURS);
+		assertEquals(20, cache.size());
+	}
+
+	@Test
+	void evictedPrefixesCanBeAddedAgain() {
+		PrefixCache<String> cache = new PrefixCache<>(1, clock::get);
+		cache.put(address("192.0.2.1"), "A", 1, TimeUnit.HOURS);
+		advanceSeconds(1);
+		cache.put(address("192.0.3.1"), "B", 1, TimeUnit.HOURS);
+		assertNull(cache.get(address("192.0.2.1")));
+		advanceSeconds(1);
+		cache.put(address("192.0.2.1"), "C", 1, TimeUnit.HOURS);
+		assertEquals("C", cache.get(address("192.0.2.1")));
+		assertNull(cache.get(address("192.0.3.1")));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void formatsPrefixes() {
+		assertEquals("192.0.2.0/24", PrefixCache.prefixOf(address("192.0.2.17")));
+		assertEquals("2001:db8:1::/48", PrefixCache.prefixOf(address("2001:db8:1:2::3")));
+	}
+
+	private void advanceSeconds(long seconds) {
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+
+	private static InetAddress address(String literal) {
+		InetAddress address = InetAddresses.parseLiteral(literal);
+		assertNotNull(address, literal);
+		return address;
+	}
+}
@@ -0,0 +1,40 @@
+package org.example.weather.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.example.weather.util.CachePolicyTest.headers;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorsTest {
+	private static final String LAST_MODIFIED = "Mon, 01 Aug 2022 18:00:00 GMT";
+
+	@Test
+	void readsValidators() {
+		Validators validators = Validators.of(headers("ETag", "\"v1\"", "Last-Modified", LAST_MODIFIED));
+		assertEquals("\"v1\"", validators.getEtag());
+		assertEquals(LAST_MODIFIED, validators.getLastModified());
+		assertFalse(validators.isEmpty());
+		assertEquals(new Validators(null, LAST_MODIFIED), Validators.of(headers("Last-Modified", LAST_MODIFIED)));
+	}
+
+	@Test
+	void noValidatorsAreNone() {
+		assertSame(Validators.NONE, Validators.of(headers("Cache-Control", "max-age=60")));
+		assertTrue(Validators.NONE.isEmpty());
+	}
+
+	@Test
+	void revalidationReplacesDeclaredValidators() {
+		Validators validators = new Validators("\"v1\"", LAST_MODIFIED);
+		assertEquals(new Validators("\"v2\"", LAST_MODIFIED), validators.updatedBy(headers("ETag", "\"v2\"")));
+		assertEquals(new Validators("\"v1\"", "Tue, 02 Aug 2022 18:00:00 GMT"),
+				validators.updatedBy(headers("Last-Modified", "Tue, 02 Aug 2022 18:00:00 GMT")));
+	}
+
+	@Test
+	void revalidationKeepsUnchangedValidators() {
+		Validators validators = new Validators("\"v1\"", LAST_MODIFIED);
+		assertSame(validators, validators.updatedBy(headers()));
+		assertSame(validators, validators.updatedBy(headers("ETag", "\"v1\"")));
+	}
+}
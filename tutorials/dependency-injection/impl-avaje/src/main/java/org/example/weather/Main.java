@@ -4,7 +4,8 @@
 
 public class Main {
 	public static void main(String[] args) {
-		// Using BeanScope, the generated module in 'core-avaje' will be found
+		// Using BeanScope, the generated module in 'core-avaje' will be found.
+		// Its wiring is fixed at compile time, so the offline location database of 'weather.ipdb' is not used here.
 		BeanScope beanScope = BeanScope.builder().build();
 		// Create app instance
 		WeatherApplication application = beanScope.get(WeatherApplication.class);
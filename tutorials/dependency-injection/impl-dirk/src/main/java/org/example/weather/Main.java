@@ -15,11 +15,17 @@ public static void main(String[] args) {
 				// Specify implementations
 				CommandLoader.class,
 				CommandManager.class,
-				LocationProvider.class,
+				HttpTransport.class,
+				// The offline database replaces the lookup API when one is configured
+				DatabaseLocationProvider.isConfigured() ? DatabaseLocationProvider.class : LocationProvider.class,
 				NetworkAccessor.class,
 				WeatherProvider.class,
-				// And the application type
-				WeatherApplication.class));
+				// And the application types
+				WeatherApplication.class,
+				WeatherServer.class,
+				WeatherBinaryServer.class,
+				WeatherBatch.class,
+				WeatherDaemon.class));
 		// Create app instance
 		WeatherApplication application = injector.getInstance(WeatherApplication.class);
 		// Run app
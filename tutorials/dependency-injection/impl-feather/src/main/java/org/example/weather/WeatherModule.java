@@ -4,27 +4,43 @@
 import org.example.weather.impl.*;
 import org.example.weather.interfaces.*;
 
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
 public class WeatherModule {
 	@Provides
-	public INetworkAccessor networkAccessor() {
-		return new NetworkAccessor();
+	@Singleton
+	public IHttpTransport httpTransport() {
+		// Shared so that every consumer uses the same connection pool
+		return new HttpTransport();
 	}
 
 	@Provides
-	public IWeatherProvider weatherProvider() {
-		return new WeatherProvider();
+	@Singleton
+	public INetworkAccessor networkAccessor(IHttpTransport transport) {
+		return new NetworkAccessor(transport);
 	}
 
 	@Provides
-	public ILocationProvider locationProvider(INetworkAccessor accessor) {
-		// Parameter will automatically pull from other provider method
-		return new LocationProvider(accessor);
+	@Singleton
+	public IWeatherProvider weatherProvider(IHttpTransport transport) {
+		return new WeatherProvider(transport);
+	}
+
+	@Provides
+	@Singleton
+	public ILocationProvider locationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		// Parameters will automatically pull from other provider methods.
+		// The offline database replaces the lookup API when one is configured.
+		if (DatabaseLocationProvider.isConfigured())
+			return new DatabaseLocationProvider(accessor);
+		return new LocationProvider(accessor, transport);
 	}
 
 	@Provides
-	public ICommandLoader commandLoader(ILocationProvider locationProvider,
-										IWeatherProvider weatherProvider) {
-		// Parameters will automatically pull from other provider methods
+	public ICommandLoader commandLoader(Provider<ILocationProvider> locationProvider,
+										Provider<IWeatherProvider> weatherProvider) {
+		// Parameters will automatically pull from other provider methods, once the commands first call them
 		return new CommandLoader(locationProvider, weatherProvider);
 	}
 
@@ -7,9 +7,11 @@
 public class WeatherModule extends AbstractModule {
 	@Override
 	protected void configure() {
+		bind(IHttpTransport.class).to(HttpTransport.class);
 		bind(INetworkAccessor.class).to(NetworkAccessor.class);
 		bind(IWeatherProvider.class).to(WeatherProvider.class);
-		bind(ILocationProvider.class).to(LocationProvider.class);
+		bind(ILocationProvider.class).to(DatabaseLocationProvider.isConfigured() ?
+				DatabaseLocationProvider.class : LocationProvider.class);
 		bind(ICommandLoader.class).to(CommandLoader.class);
 		bind(ICommandManager.class).to(CommandManager.class);
 	}
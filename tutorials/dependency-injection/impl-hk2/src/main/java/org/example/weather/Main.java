@@ -1,5 +1,7 @@
 package org.example.weather;
 
+import org.example.weather.impl.DatabaseLocationProvider;
+import org.example.weather.impl.LocationProvider;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
 
@@ -7,6 +9,11 @@ public class Main {
 	public static void main(String[] args) {
 		// Load from the locator entry 'META-INF/hk2-locator/default' created by 'hk2-metadata-generator'
 		ServiceLocator locator = ServiceLocatorUtilities.createAndPopulateServiceLocator();
+		// Both location providers are in the entry, remove the one not in use.
+		// The offline database replaces the lookup API when one is configured.
+		String unused = (DatabaseLocationProvider.isConfigured() ? LocationProvider.class : DatabaseLocationProvider.class)
+				.getName();
+		ServiceLocatorUtilities.removeFilter(locator, descriptor -> unused.equals(descriptor.getImplementation()));
 		// Create the weather application instance and run it.
 		WeatherApplication application = locator.create(WeatherApplication.class);
 		application.run();
@@ -4,6 +4,7 @@ public class Main {
 	public static void main(String[] args) {
 		// Build inverno module implementation, then activate it with 'start()'
 		//  - Requires a project build to generate the 'Weather' and 'Weather.Builder' type
+		//  - Its wiring is fixed at compile time, so the offline location database of 'weather.ipdb' is not used here
 		Weather weather = new Weather.Builder().doBuild();
 		weather.start();
 		// Run the application
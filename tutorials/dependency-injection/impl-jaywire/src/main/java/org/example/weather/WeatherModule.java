@@ -5,26 +5,48 @@
 import org.example.weather.interfaces.*;
 
 public class WeatherModule extends StandaloneModule {
+	public IHttpTransport httpTransport() {
+		return singleton(HttpTransport::new);
+	}
+
 	public INetworkAccessor networkAccessor() {
-		return new NetworkAccessor();
+		return singleton(() -> new NetworkAccessor(httpTransport()));
 	}
 
 	public IWeatherProvider weatherProvider() {
-		return singleton(WeatherProvider::new);
+		return singleton(() -> new WeatherProvider(httpTransport()));
 	}
 
 	public ILocationProvider locationProvider() {
-		return singleton(() -> new LocationProvider(networkAccessor()));
+		return singleton(() -> DatabaseLocationProvider.isConfigured() ?
+				new DatabaseLocationProvider(networkAccessor()) :
+				new LocationProvider(networkAccessor(), httpTransport()));
 	}
 
 	public ICommandLoader commandLoader() {
-		return singleton(() -> new CommandLoader(locationProvider(), weatherProvider()));
+		return singleton(() -> new CommandLoader(this::locationProvider, this::weatherProvider));
 	}
 
 	public ICommandManager commandManager() {
 		return singleton(() -> new CommandManager(commandLoader()));
 	}
 
+	public WeatherServer server() {
+		return singleton(() -> new WeatherServer(commandManager(), weatherProvider(), locationProvider()));
+	}
+
+	public WeatherBinaryServer binaryServer() {
+		return singleton(() -> new WeatherBinaryServer(weatherProvider()));
+	}
+
+	public WeatherBatch batch() {
+		return singleton(() -> new WeatherBatch(this::application));
+	}
+
+	public WeatherDaemon daemon() {
+		return singleton(() -> new WeatherDaemon(this::application));
+	}
+
 	public WeatherApplication application() {
 		// JayWire provides no automatic parameter calling by design.
 		// Instead, we restructure the module (compared to other implementations)
@@ -33,6 +55,7 @@ public WeatherApplication application() {
 		//
 		// All return values are wrapped in 'singleton(...)' which is like Map's computeIfAbsent.
 		// A lazy-lookup that only gets run a *single* time.
-		return singleton(() -> new WeatherApplication(commandManager()));
+		return singleton(() -> new WeatherApplication(commandManager(), this::server, this::binaryServer,
+				this::batch, this::daemon));
 	}
 }
@@ -5,9 +5,13 @@
 import org.example.weather.impl.*;
 import org.example.weather.interfaces.*;
 
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
 /**
  * Manual component implementation.
  */
+@Singleton
 @Component
 public interface WeatherComponent {
 	@Component.Factory
@@ -16,22 +20,35 @@ interface Factory {
 	}
 
 	@Provides
-	static IWeatherProvider provideWeatherProvider() {
-		return new WeatherProvider();
+	@Singleton
+	static IHttpTransport provideHttpTransport() {
+		// Shared so that every consumer uses the same connection pool
+		return new HttpTransport();
+	}
+
+	@Provides
+	@Singleton
+	static IWeatherProvider provideWeatherProvider(IHttpTransport transport) {
+		return new WeatherProvider(transport);
 	}
 
 	@Provides
-	static INetworkAccessor provideNetworkAccessor() {
-		return new NetworkAccessor();
+	@Singleton
+	static INetworkAccessor provideNetworkAccessor(IHttpTransport transport) {
+		return new NetworkAccessor(transport);
 	}
 
 	@Provides
-	static ILocationProvider provideLocationProvider(INetworkAccessor accessor) {
-		return new LocationProvider(accessor);
+	@Singleton
+	static ILocationProvider provideLocationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		if (DatabaseLocationProvider.isConfigured())
+			return new DatabaseLocationProvider(accessor);
+		return new LocationProvider(accessor, transport);
 	}
 
 	@Provides
-	static ICommandLoader provideCommandLoader(ILocationProvider locationProvider, IWeatherProvider weatherProvider) {
+	static ICommandLoader provideCommandLoader(Provider<ILocationProvider> locationProvider,
+											   Provider<IWeatherProvider> weatherProvider) {
 		return new CommandLoader(locationProvider, weatherProvider);
 	}
 
@@ -1,14 +1,23 @@
 package org.example.weather;
 
+import org.example.weather.impl.AbstractLocationProvider;
+import org.example.weather.impl.DatabaseLocationProvider;
+import org.example.weather.impl.LocationProvider;
+import org.example.weather.interfaces.IHttpTransport;
+import org.example.weather.interfaces.ILocationProvider;
+import org.example.weather.interfaces.INetworkAccessor;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.ComponentScan.Filter;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
 
 import javax.inject.Singleton;
 
 @Configuration
-@ComponentScan(basePackages = "org.example.weather", includeFilters = @Filter(Singleton.class))
+@ComponentScan(basePackages = "org.example.weather", includeFilters = @Filter(Singleton.class),
+		excludeFilters = @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = AbstractLocationProvider.class))
 public class Main {
 	public static void main(String[] args) {
 		// Create the spring context, which will pull config from the annotations on this class.
@@ -17,4 +26,13 @@ public static void main(String[] args) {
 			context.getBean(WeatherApplication.class).run();
 		}
 	}
+
+	@Bean
+	public ILocationProvider locationProvider(INetworkAccessor accessor, IHttpTransport transport) {
+		// Left out of the scan, as only one of the location providers may be bound.
+		// The offline database replaces the lookup API when one is configured.
+		if (DatabaseLocationProvider.isConfigured())
+			return new DatabaseLocationProvider(accessor);
+		return new LocationProvider(accessor, transport);
+	}
 }
@@ -1,7 +1,14 @@
 package org.example.weather;
 
+import org.example.weather.impl.AbstractLocationProvider;
+import org.example.weather.impl.DatabaseLocationProvider;
+import org.example.weather.impl.LocationProvider;
+
+import javax.enterprise.event.Observes;
 import javax.enterprise.inject.se.SeContainer;
 import javax.enterprise.inject.se.SeContainerInitializer;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
 
 public class Main {
 	public static void main(String[] args) {
@@ -11,9 +18,23 @@ public static void main(String[] args) {
 		//  - SeContainerInitializer.newInstance()
 		SeContainer container = SeContainerInitializer.newInstance()
 				.addPackages(true, WeatherApplication.class)
+				.addExtensions(new LocationProviderExtension())
 				.initialize();
 		// Create application instance and run
 		WeatherApplication application = container.select(WeatherApplication.class).get();
 		application.run();
 	}
+
+	/**
+	 * Vetoes the location provider not in use, as the scan finds both but only one may be bound.
+	 * The offline database replaces the lookup API when one is configured.
+	 */
+	public static class LocationProviderExtension implements Extension {
+		void select(@Observes ProcessAnnotatedType<? extends AbstractLocationProvider> event) {
+			Class<?> selected = DatabaseLocationProvider.isConfigured() ?
+					DatabaseLocationProvider.class : LocationProvider.class;
+			if (event.getAnnotatedType().getJavaClass() != selected)
+				event.veto();
+		}
+	}
 }